@@ -0,0 +1,77 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a whole catalog one beer per call, against a single {@code createBeers} call that
+ * batches the inserts. Every iteration starts from an empty table and times one catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BeerCreationBenchmark {
+
+    @Param({"100", "2000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private BeerService beerService;
+
+    private BeerRepository beerRepository;
+
+    private List<BeerDTO> catalog;
+
+    @Setup
+    public void setUp() {
+        context = BeerStockContext.start();
+        beerService = context.getBean(BeerService.class);
+        beerRepository = context.getBean(BeerRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyCatalog() {
+        beerRepository.deleteAllInBatch();
+        catalog = BeerStockContext.beers(catalogSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int createOneByOne() throws Exception {
+        for (BeerDTO beerDTO : catalog) {
+            beerService.createBeer(beerDTO);
+        }
+        return catalog.size();
+    }
+
+    @Benchmark
+    public List<BeerDTO> createInBulk() throws Exception {
+        return beerService.createBeers(catalog);
+    }
+}
@@ -0,0 +1,59 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
+import one.digitalinnovation.beerstock.service.BeerNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups against a trigram index of {@code beers} beers. Sample time mode, so the
+ * report includes the p0.99 latency next to the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerNameIndexBenchmark {
+
+    private static final String[] BRANDS = {"Ambev", "Heineken", "Petropolis", "Colorado", "Baden Baden", "Eisenbahn"};
+    private static final String[] STYLES = {"Lager", "Pilsen", "Stout", "Weiss", "India Pale Ale", "Bock", "Red Ale"};
+
+    @Param("100000")
+    private int beers;
+
+    private BeerNameIndex beerNameIndex;
+
+    @Setup
+    public void setUp() {
+        beerNameIndex = new BeerNameIndex(new BeerStockProperties(), new SimpleMeterRegistry());
+        for (int i = 0; i < beers; i++) {
+            beerNameIndex.add((long) i, STYLES[i % STYLES.length] + " " + i, BRANDS[i % BRANDS.length]);
+        }
+    }
+
+    @Benchmark
+    public List<BeerTypeaheadDTO> prefix() {
+        return beerNameIndex.search("eisenb", 10);
+    }
+
+    @Benchmark
+    public List<BeerTypeaheadDTO> misspelled() {
+        return beerNameIndex.search("Colroado stuot 4242", 10);
+    }
+}
@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the whole catalog as managed entities mapped through {@link BeerMapper}, against the
+ * {@link BeerDTO} projection the read endpoints use. Both run in a read-write transaction, so
+ * the entity side also pays the dirty check of every beer when it commits. Run with
+ * {@code -prof gc} to compare the allocation per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerProjectionBenchmark {
+
+    @Param({"100", "1000"})
+    public int catalogSize;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private ConfigurableApplicationContext context;
+
+    private BeerRepository beerRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BeerStockContext.start();
+        beerRepository = context.getBean(BeerRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        context.getBean(BeerService.class).createBeers(BeerStockContext.beers(catalogSize));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerDTO> entities() {
+        return transactionTemplate.execute(status -> beerRepository.findAll().stream()
+                .map(beerMapper::toDTO)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<BeerDTO> projections() {
+        return transactionTemplate.execute(status -> beerRepository.findAllDTOs());
+    }
+}
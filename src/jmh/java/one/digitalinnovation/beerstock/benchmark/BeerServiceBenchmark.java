@@ -0,0 +1,73 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerServiceBenchmark {
+
+    @Param({"caffeine", "none"})
+    public String cacheType;
+
+    @Param({"100", "1000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private BeerService beerService;
+
+    private List<BeerDTO> beers;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BeerStockContext.start("spring.cache.type=" + cacheType);
+        beerService = context.getBean(BeerService.class);
+        beers = beerService.createBeers(BeerStockContext.beers(catalogSize));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerDTO findByName() throws Exception {
+        return beerService.findByName(randomBeer().getName());
+    }
+
+    @Benchmark
+    public BeerDTO increment() throws Exception {
+        return beerService.increment(randomBeer().getId(), 1);
+    }
+
+    @Benchmark
+    public List<BeerDTO> listAll() {
+        return beerService.listAll();
+    }
+
+    private BeerDTO randomBeer() {
+        return beers.get(ThreadLocalRandom.current().nextInt(beers.size()));
+    }
+}
@@ -0,0 +1,50 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the application without a web server against its own in-memory H2 database,
+ * so benchmarks exercise the same beans, caches and Hibernate settings as production.
+ */
+final class BeerStockContext {
+
+    private BeerStockContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:beerstock-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.devtools.restart.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    static List<BeerDTO> beers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(BeerStockContext::beer)
+                .collect(Collectors.toList());
+    }
+
+    static BeerDTO beer(int index) {
+        return BeerDTO.builder()
+                .name("Benchmark Beer " + index)
+                .brand("Benchmark Brewery")
+                .max(Integer.MAX_VALUE)
+                .quantity(0)
+                .type(BeerType.values()[index % BeerType.values().length])
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent stock changes on one hot beer as its stock is spread over more
+ * shard rows; 0 shards keeps the stock in the beer row, one UPDATE on it per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class BeerStockShardsBenchmark {
+
+    @Param({"0", "1", "4", "16", "64"})
+    public int stockShards;
+
+    private ConfigurableApplicationContext context;
+
+    private BeerService beerService;
+
+    private Long beerId;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BeerStockContext.start();
+        beerService = context.getBean(BeerService.class);
+        BeerDTO beer = BeerStockContext.beer(0);
+        beer.setQuantity(Integer.MAX_VALUE / 2);
+        beerId = beerService.createBeer(beer).getId();
+        beerService.reshardStock(beerId, stockShards);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Direction {
+
+        private boolean increment;
+    }
+
+    // alternates per thread so every shard stays around its starting point
+    @Benchmark
+    public BeerDTO changeStock(Direction direction) throws Exception {
+        direction.increment = !direction.increment;
+        try {
+            return direction.increment ? beerService.increment(beerId, 1) : beerService.decrement(beerId, 1);
+        } catch (BeerStockExceededException e) {
+            return null;
+        }
+    }
+}
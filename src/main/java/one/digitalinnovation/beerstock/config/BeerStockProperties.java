@@ -0,0 +1,125 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock")
+public class BeerStockProperties {
+
+    private NameFilter nameFilter = new NameFilter();
+
+    private StockRetry stockRetry = new StockRetry();
+
+    private Metrics metrics = new Metrics();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    private Reservations reservations = new Reservations();
+
+    private ChangeFeed changeFeed = new ChangeFeed();
+
+    private DeltaSync deltaSync = new DeltaSync();
+
+    private Stats stats = new Stats();
+
+    private Typeahead typeahead = new Typeahead();
+
+    @Data
+    public static class NameFilter {
+
+        private boolean enabled = true;
+
+        private int expectedInsertions = 100_000;
+
+        private double falsePositiveProbability = 0.01;
+    }
+
+    @Data
+    public static class StockRetry {
+
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofMillis(10);
+
+        private Duration maxBackoff = Duration.ofMillis(200);
+
+        private int maxTaggedBeers = 20;
+    }
+
+    @Data
+    public static class Metrics {
+
+        private Duration stockRefresh = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        private int flushThreshold = 1000;
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        private boolean enabled = false;
+
+        private Duration window = Duration.ofMillis(2);
+
+        private int maxBatchSize = 256;
+    }
+
+    @Data
+    public static class Reservations {
+
+        private Duration ttl = Duration.ofMinutes(10);
+
+        private int releaseBatchSize = 500;
+    }
+
+    @Data
+    public static class ChangeFeed {
+
+        private int capacity = 4096;
+
+        private int senderThreads = 4;
+
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        private Duration timeout = Duration.ofMinutes(30);
+
+        private Duration sendTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class DeltaSync {
+
+        private Duration tombstoneRetention = Duration.ofDays(7);
+
+        private Duration purgeInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Stats {
+
+        private Duration reconcileInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Typeahead {
+
+        private double minSimilarity = 0.1;
+
+        private int maxResults = 50;
+    }
+}
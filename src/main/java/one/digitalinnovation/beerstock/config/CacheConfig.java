@@ -0,0 +1,11 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BEERS_BY_NAME_CACHE = "beersByName";
+}
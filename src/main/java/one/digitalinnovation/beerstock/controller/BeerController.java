@@ -1,33 +1,87 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerBulkRequestDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerDeltaDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockAlertDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockThresholdDTO;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.SparseBeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.dto.StockShardsDTO;
+import one.digitalinnovation.beerstock.enums.BeerField;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerFieldNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerPageOutOfRangeException;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.service.BeerChangeFeed;
+import one.digitalinnovation.beerstock.service.BeerDeltaSync;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.BeerStockAlerts;
+import one.digitalinnovation.beerstock.service.BeerStockStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController implements BeerControllerDocs {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NEXT_PAGE_HEADER = "X-Next-Page";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private static final String ANY_ENTITY_TAG = "*";
+    private static final String WEAK_ENTITY_TAG_PREFIX = "W/";
+
     private final BeerService beerService;
+    private final ObjectMapper objectMapper;
+    private final BeerChangeFeed beerChangeFeed;
+    private final BeerDeltaSync beerDeltaSync;
+    private final BeerStockStats beerStockStats;
+    private final BeerStockAlerts beerStockAlerts;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -35,14 +89,91 @@ public class BeerController implements BeerControllerDocs {
         return beerService.createBeer(beerDTO);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BeerDTO> createBeers(@RequestBody @Valid BeerBulkRequestDTO beerBulkRequestDTO) throws BeerAlreadyRegisteredException {
+        return beerService.createBeers(beerBulkRequestDTO.getBeers());
+    }
+
+    @PostMapping("/lookup")
+    public List<BeerLookupDTO> lookup(@RequestBody @Valid BeerLookupRequestDTO beerLookupRequestDTO) {
+        return beerService.lookup(beerLookupRequestDTO.getNames());
+    }
+
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public ResponseEntity<BeerDTO> findByName(@PathVariable String name,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws BeerNotFoundException {
+        // only the id and version are read to revalidate, the beer itself is loaded on a miss
+        if (ifNoneMatch != null) {
+            Optional<String> currentETag = beerService.findVersionByName(name)
+                    .map(version -> eTag(version.getId(), version.getVersion()));
+            if (currentETag.isPresent() && matchesAny(ifNoneMatch, currentETag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag.get()).build();
+            }
+        }
+        BeerDTO beerDTO = beerService.findByName(name);
+        return ResponseEntity.ok().eTag(eTag(beerDTO)).body(beerDTO);
     }
 
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<List<BeerDTO>> listBeers(@RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Integer page,
+                                                   @RequestParam(defaultValue = "100") int limit,
+                                                   @RequestParam(required = false) List<String> fields,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws BeerFieldNotFoundException, BeerPageOutOfRangeException {
+        Set<BeerField> beerFields = fields == null ? null : BeerField.fromProperties(fields);
+        // read before the page so the tag can only lag behind the data, never run ahead of it
+        String catalogETag = catalogETag(beerService.catalogVersion(), beerFields);
+        if (ifNoneMatch != null && matchesAny(ifNoneMatch, catalogETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalogETag).build();
+        }
+        BeerPageDTO beerPage = page == null ? beerService.listPage(after, limit, beerFields) : beerService.listOffsetPage(page, limit, beerFields);
+        return ResponseEntity.ok().headers(pageHeaders(beerPage)).eTag(catalogETag).body(pageBody(beerPage, beerFields));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<BeerDTO>> searchBeers(@Valid BeerSearchDTO search,
+                                                     @RequestParam(required = false) Long after,
+                                                     @RequestParam(defaultValue = "100") int limit,
+                                                     @RequestParam(required = false) List<String> fields) throws BeerFieldNotFoundException {
+        Set<BeerField> beerFields = fields == null ? null : BeerField.fromProperties(fields);
+        BeerPageDTO beerPage = beerService.search(search, after, limit, beerFields);
+        return ResponseEntity.ok().headers(pageHeaders(beerPage)).body(pageBody(beerPage, beerFields));
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers() {
+        StreamingResponseBody body = outputStream -> beerService.exportAll(beerDTO -> writeLine(outputStream, beerDTO));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return beerChangeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping("/changes-since/{sequence}")
+    public BeerDeltaDTO changesSince(@PathVariable long sequence,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(defaultValue = "100") int limit) {
+        return after == null ? beerDeltaSync.changesSince(sequence, limit) : beerDeltaSync.snapshotAfter(sequence, after, limit);
+    }
+
+    @GetMapping("/typeahead")
+    public List<BeerTypeaheadDTO> typeahead(@RequestParam("q") String query, @RequestParam(defaultValue = "10") int limit) {
+        return beerService.typeahead(query, limit);
+    }
+
+    @GetMapping("/stats")
+    public BeerStatsDTO stats() {
+        return beerStockStats.stats();
+    }
+
+    @GetMapping("/stock-alerts")
+    public List<BeerStockAlertDTO> stockAlerts() {
+        return beerStockAlerts.activeAlerts();
     }
 
     @DeleteMapping("/{id}")
@@ -52,12 +183,125 @@ public class BeerController implements BeerControllerDocs {
     }
 
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException, BeerVersionMismatchException {
+        Optional<Long> expectedVersion = expectedVersion(id, ifMatch);
+        BeerDTO beerDTO = expectedVersion.isPresent()
+                ? beerService.increment(id, quantityDTO.getQuantity(), expectedVersion.get())
+                : beerService.increment(id, quantityDTO.getQuantity());
+        return ResponseEntity.ok().eTag(eTag(beerDTO)).body(beerDTO);
     }
 
     @PatchMapping("/{id}/decrement")
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.decrement(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException, BeerVersionMismatchException {
+        Optional<Long> expectedVersion = expectedVersion(id, ifMatch);
+        BeerDTO beerDTO = expectedVersion.isPresent()
+                ? beerService.decrement(id, quantityDTO.getQuantity(), expectedVersion.get())
+                : beerService.decrement(id, quantityDTO.getQuantity());
+        return ResponseEntity.ok().eTag(eTag(beerDTO)).body(beerDTO);
+    }
+
+    @PatchMapping("/{id}/stock-shards")
+    public ResponseEntity<BeerDTO> reshardStock(@PathVariable Long id, @RequestBody @Valid StockShardsDTO stockShardsDTO) throws BeerNotFoundException, BeerReservationConflictException {
+        BeerDTO beerDTO = beerService.reshardStock(id, stockShardsDTO.getStockShards());
+        return ResponseEntity.ok().eTag(eTag(beerDTO)).body(beerDTO);
+    }
+
+    @PutMapping("/{id}/stock-threshold")
+    public BeerStockThresholdDTO setStockThreshold(@PathVariable Long id, @RequestBody @Valid BeerStockThresholdDTO beerStockThresholdDTO) throws BeerNotFoundException {
+        return beerStockAlerts.setThreshold(id, beerStockThresholdDTO);
+    }
+
+    @DeleteMapping("/{id}/stock-threshold")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void removeStockThreshold(@PathVariable Long id) {
+        beerStockAlerts.removeThreshold(id);
+    }
+
+    @PatchMapping("/stock")
+    public List<StockAdjustmentResultDTO> adjustStock(@RequestBody @Valid StockAdjustmentRequestDTO stockAdjustmentRequestDTO) throws BeerNotFoundException, BeerStockExceededException {
+        return beerService.adjustStock(stockAdjustmentRequestDTO.getAdjustments(), stockAdjustmentRequestDTO.isPartial());
+    }
+
+    // only a sparse fieldset leaves out the properties it did not read
+    private List<BeerDTO> pageBody(BeerPageDTO beerPage, Set<BeerField> fields) {
+        if (fields == null) {
+            return beerPage.getBeers();
+        }
+        return beerPage.getBeers().stream().map(SparseBeerDTO::new).collect(Collectors.toList());
+    }
+
+    private HttpHeaders pageHeaders(BeerPageDTO beerPage) {
+        HttpHeaders headers = new HttpHeaders();
+        if (beerPage.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, beerPage.getNextCursor().toString());
+            headers.add(HttpHeaders.LINK, nextLink("after", beerPage.getNextCursor()));
+        }
+        if (beerPage.getNextPage() != null) {
+            headers.set(NEXT_PAGE_HEADER, beerPage.getNextPage().toString());
+            headers.add(HttpHeaders.LINK, nextLink("page", beerPage.getNextPage()));
+        }
+        return headers;
+    }
+
+    private String eTag(BeerDTO beerDTO) {
+        return eTag(beerDTO.getId(), beerDTO.getVersion());
+    }
+
+    private String eTag(Long id, long version) {
+        return String.format("\"%s.%s\"", id, version);
+    }
+
+    // a page narrowed to some fields is a different representation, so it gets a tag of its own
+    private String catalogETag(String catalogVersion, Set<BeerField> fields) {
+        if (fields == null) {
+            return String.format("\"catalog.%s\"", catalogVersion);
+        }
+        String fieldsTag = fields.stream().map(BeerField::getProperty).collect(Collectors.joining("+"));
+        return String.format("\"catalog.%s.%s\"", catalogVersion, fieldsTag);
+    }
+
+    // If-None-Match uses the weak comparison, so W/ tags match their strong counterpart
+    private boolean matchesAny(String ifNoneMatch, String eTag) {
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith(WEAK_ENTITY_TAG_PREFIX) ? tag.substring(WEAK_ENTITY_TAG_PREFIX.length()) : tag)
+                .anyMatch(tag -> tag.equals(ANY_ENTITY_TAG) || tag.equals(eTag));
+    }
+
+    // If-Match uses the strong comparison; a tag naming another beer can never match
+    private Optional<Long> expectedVersion(Long id, String ifMatch) throws BeerVersionMismatchException {
+        if (ifMatch == null || ifMatch.trim().equals(ANY_ENTITY_TAG)) {
+            return Optional.empty();
+        }
+        String prefix = "\"" + id + ".";
+        for (String tag : ifMatch.split(",")) {
+            String trimmedTag = tag.trim();
+            if (trimmedTag.startsWith(prefix) && trimmedTag.endsWith("\"") && trimmedTag.length() > prefix.length() + 1) {
+                try {
+                    return Optional.of(Long.parseLong(trimmedTag.substring(prefix.length(), trimmedTag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // not one of our tags, keep looking
+                }
+            }
+        }
+        throw new BeerVersionMismatchException(id);
+    }
+
+    private String nextLink(String parameter, Object value) {
+        String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(parameter, value)
+                .toUriString();
+        return String.format("<%s>; rel=\"next\"", uri);
+    }
+
+    private void writeLine(OutputStream outputStream, BeerDTO beerDTO) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(beerDTO));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
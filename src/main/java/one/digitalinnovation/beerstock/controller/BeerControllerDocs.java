@@ -4,13 +4,33 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerBulkRequestDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerDeltaDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockAlertDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockThresholdDTO;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.dto.StockShardsDTO;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerFieldNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerPageOutOfRangeException;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -25,18 +45,92 @@ public interface BeerControllerDocs {
     })
     BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
 
+    @ApiOperation(value = "Bulk beer creation operation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success creation of all given beers"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or beer name already registered.")
+    })
+    List<BeerDTO> createBeers(BeerBulkRequestDTO beerBulkRequestDTO) throws BeerAlreadyRegisteredException;
+
+    @ApiOperation(value = "Returns the beers found by the given names, in request order")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One result per given name, flagged as not found when there is no such beer"),
+            @ApiResponse(code = 400, message = "Missing or blank names.")
+    })
+    List<BeerLookupDTO> lookup(BeerLookupRequestDTO beerLookupRequestDTO);
+
     @ApiOperation(value = "Returns beer found by a given name")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success beer found in the system"),
+            @ApiResponse(code = 200, message = "Success beer found in the system, tagged with its version in the ETag header"),
+            @ApiResponse(code = 304, message = "Beer unchanged since the version given in If-None-Match"),
             @ApiResponse(code = 404, message = "Beer with given name not found.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    ResponseEntity<BeerDTO> findByName(@PathVariable String name, String ifNoneMatch) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns a page of beers registered in the system, ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of beers registered in the system, with the next cursor or page and the catalog ETag in the response headers"),
+            @ApiResponse(code = 304, message = "Catalog unchanged since the ETag given in If-None-Match"),
+            @ApiResponse(code = 400, message = "Unknown field in fields or page too deep for offset pagination.")
+    })
+    ResponseEntity<List<BeerDTO>> listBeers(Long after, Integer page, int limit, List<String> fields, String ifNoneMatch) throws BeerFieldNotFoundException, BeerPageOutOfRangeException;
+
+    @ApiOperation(value = "Returns a page of the beers matching every filter given, ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of matching beers, with the next cursor in the response headers"),
+            @ApiResponse(code = 400, message = "Quantity below zero, fill ratio outside 0..1 or unknown field in fields.")
+    })
+    ResponseEntity<List<BeerDTO>> searchBeers(BeerSearchDTO search, Long after, int limit, List<String> fields) throws BeerFieldNotFoundException;
+
+    @ApiOperation(value = "Streams every beer registered in the system as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One beer per line, written as it is read from the database"),
+    })
+    ResponseEntity<StreamingResponseBody> exportBeers();
+
+    @ApiOperation(value = "Streams committed beer changes as Server-Sent Events, resuming after the id given in Last-Event-ID")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One event per change, named after its type, plus gap events naming the changes the stream could not deliver")
+    })
+    SseEmitter streamChanges(String lastEventId);
+
+    @ApiOperation(value = "Returns the beers changed and deleted after a change sequence, or the whole catalog when that sequence is too old")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Upserts and tombstones up to the returned sequence, paged by limit, or a page of the whole catalog flagged as a snapshot, continued with after set to its next cursor")
+    })
+    BeerDeltaDTO changesSince(@PathVariable long sequence, Long after, int limit);
+
+    @ApiOperation(value = "Returns the beers whose name and brand best match a partial or misspelled query")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Suggestions, most similar first")
+    })
+    List<BeerTypeaheadDTO> typeahead(String query, int limit);
+
+    @ApiOperation(value = "Returns the stock totals per beer type and per brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers, quantity, capacity and fill ratio of every type and brand in stock")
+    })
+    BeerStatsDTO stats();
+
+    @ApiOperation(value = "Returns the beers currently below their low-stock threshold")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Active alerts, oldest first")
+    })
+    List<BeerStockAlertDTO> stockAlerts();
+
+    @ApiOperation(value = "Sets the low-stock threshold of a beer, in units or as a percentage of its max")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Threshold set and checked against the current stock"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    BeerStockThresholdDTO setStockThreshold(@PathVariable Long id, BeerStockThresholdDTO beerStockThresholdDTO) throws BeerNotFoundException;
 
-    @ApiOperation(value = "Returns a list of all beers registered in the system")
+    @ApiOperation(value = "Removes the low-stock threshold of a beer and any alert it raised")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 204, message = "Threshold removed, or there was none")
     })
-    List<BeerDTO> listBeers();
+    void removeStockThreshold(@PathVariable Long id);
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
@@ -44,4 +138,41 @@ public interface BeerControllerDocs {
             @ApiResponse(code = 404, message = "Beer with given id not found.")
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Increments the stock of a beer, optionally only if it still matches the ETag given in If-Match")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success beer stock incremented, tagged with its new version"),
+            @ApiResponse(code = 400, message = "Stock would exceed the max capacity of the beer."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock kept changing concurrently until retries ran out."),
+            @ApiResponse(code = 412, message = "Beer changed since the version given in If-Match.")
+    })
+    ResponseEntity<BeerDTO> increment(@PathVariable Long id, QuantityDTO quantityDTO, String ifMatch) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException, BeerVersionMismatchException;
+
+    @ApiOperation(value = "Decrements the stock of a beer, optionally only if it still matches the ETag given in If-Match")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success beer stock decremented, tagged with its new version"),
+            @ApiResponse(code = 400, message = "Stock would fall below zero or into stock held by reservations."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock kept changing concurrently until retries ran out."),
+            @ApiResponse(code = 412, message = "Beer changed since the version given in If-Match.")
+    })
+    ResponseEntity<BeerDTO> decrement(@PathVariable Long id, QuantityDTO quantityDTO, String ifMatch) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException, BeerVersionMismatchException;
+
+    @ApiOperation(value = "Spreads the stock of a beer over the given number of shard rows, or keeps it in a single row when 0")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success beer stock resharded, total stock unchanged"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer has reserved stock, which only unsharded beers can hold.")
+    })
+    ResponseEntity<BeerDTO> reshardStock(@PathVariable Long id, StockShardsDTO stockShardsDTO) throws BeerNotFoundException, BeerReservationConflictException;
+
+    @ApiOperation(value = "Applies a batch of stock adjustments in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Result of each stock adjustment, in id order"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or stock exceeded on an all-or-nothing batch."),
+            @ApiResponse(code = 404, message = "Beer with given id not found on an all-or-nothing batch.")
+    })
+    List<StockAdjustmentResultDTO> adjustStock(StockAdjustmentRequestDTO stockAdjustmentRequestDTO) throws BeerNotFoundException, BeerStockExceededException;
 }
@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerReservationDTO;
+import one.digitalinnovation.beerstock.dto.BeerReservationRequestDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerReservationNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationSettledException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.service.BeerReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1/beers/{id}/reservations")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerReservationController implements BeerReservationControllerDocs {
+
+    private final BeerReservationService beerReservationService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public BeerReservationDTO reserve(@PathVariable Long id, @RequestBody @Valid BeerReservationRequestDTO reservationRequestDTO) throws BeerNotFoundException, BeerStockExceededException, BeerReservationConflictException {
+        return beerReservationService.reserve(id, reservationRequestDTO.getQuantity());
+    }
+
+    @PostMapping("/{reservationId}/confirm")
+    public BeerReservationDTO confirm(@PathVariable Long id, @PathVariable Long reservationId) throws BeerReservationNotFoundException, BeerReservationSettledException {
+        return beerReservationService.confirm(id, reservationId);
+    }
+
+    @PostMapping("/{reservationId}/cancel")
+    public BeerReservationDTO cancel(@PathVariable Long id, @PathVariable Long reservationId) throws BeerReservationNotFoundException, BeerReservationSettledException {
+        return beerReservationService.cancel(id, reservationId);
+    }
+}
@@ -0,0 +1,43 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerReservationDTO;
+import one.digitalinnovation.beerstock.dto.BeerReservationRequestDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerReservationNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationSettledException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@Api("Manages beer stock reservations")
+public interface BeerReservationControllerDocs {
+
+    @ApiOperation(value = "Holds stock of a beer until the reservation is confirmed, cancelled or expires")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success stock held, with the instant the hold expires"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or not enough available stock."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Beer stock is sharded, which cannot hold reservations.")
+    })
+    BeerReservationDTO reserve(@PathVariable Long id, BeerReservationRequestDTO reservationRequestDTO) throws BeerNotFoundException, BeerStockExceededException, BeerReservationConflictException;
+
+    @ApiOperation(value = "Confirms a reservation, taking its held stock out of the beer")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success reservation confirmed"),
+            @ApiResponse(code = 404, message = "Reservation with given id not found for the beer."),
+            @ApiResponse(code = 409, message = "Reservation already confirmed, cancelled or expired.")
+    })
+    BeerReservationDTO confirm(@PathVariable Long id, @PathVariable Long reservationId) throws BeerReservationNotFoundException, BeerReservationSettledException;
+
+    @ApiOperation(value = "Cancels a reservation, returning its held stock to the beer")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success reservation cancelled"),
+            @ApiResponse(code = 404, message = "Reservation with given id not found for the beer."),
+            @ApiResponse(code = 409, message = "Reservation already confirmed, cancelled or expired.")
+    })
+    BeerReservationDTO cancel(@PathVariable Long id, @PathVariable Long reservationId) throws BeerReservationNotFoundException, BeerReservationSettledException;
+}
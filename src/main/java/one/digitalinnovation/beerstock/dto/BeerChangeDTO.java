@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerChangeDTO {
+
+    private Long sequence;
+
+    private BeerChangeType type;
+
+    private BeerDTO beer;
+
+    private Instant changedAt;
+}
@@ -0,0 +1,22 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changes a feed client missed, from {@code fromSequence} to {@code toSequence} inclusive. A null
+ * {@code fromSequence} means the server restarted since the client's last event, so how much was
+ * missed before {@code toSequence} is unknown.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerChangeGapDTO {
+
+    private Long fromSequence;
+
+    private Long toSequence;
+}
@@ -1,8 +1,11 @@
 package one.digitalinnovation.beerstock.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import one.digitalinnovation.beerstock.enums.BeerType;
 
@@ -36,7 +39,17 @@ public class BeerDTO {
     @Max(100)
     private Integer quantity;
 
+    // held by reservations; available stock is quantity - reserved
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @EqualsAndHashCode.Exclude
+    private Integer reserved;
+
     @Enumerated(EnumType.STRING)
     @NotNull
     private BeerType type;
+
+    // travels in the ETag header rather than in the body
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
 }
@@ -0,0 +1,34 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Beers changed and deleted after the sequence a replica asked for, up to {@code sequence}, which
+ * the replica passes on its next call. When {@code snapshot} is true the upserts are a page of the
+ * whole catalog: the first page replaces the replica's copy, and while {@code nextCursor} is set
+ * the next page is asked for with it as {@code after}. {@code more} tells there is more to read
+ * right away rather than on the next poll.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerDeltaDTO {
+
+    private Long sequence;
+
+    private boolean snapshot;
+
+    private List<BeerDTO> upserts;
+
+    private List<BeerTombstoneDTO> tombstones;
+
+    private boolean more;
+
+    private Long nextCursor;
+}
@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerReservationDTO {
+
+    private Long id;
+
+    private Long beerId;
+
+    private Integer quantity;
+
+    private ReservationStatus status;
+
+    private Instant expiresAt;
+}
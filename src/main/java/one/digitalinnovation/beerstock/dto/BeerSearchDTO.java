@@ -0,0 +1,39 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+
+/**
+ * Search filters, all optional and combined with AND. Quantity and fill ratio bounds are inclusive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerSearchDTO {
+
+    private BeerType type;
+
+    private String brand;
+
+    @Min(0)
+    private Integer minQuantity;
+
+    @Min(0)
+    private Integer maxQuantity;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double minFillRatio;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double maxFillRatio;
+}
@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockThresholdUnit;
+
+import java.time.Instant;
+
+/**
+ * An active low-stock alert: the beer as of its latest stock change and the threshold it crossed.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockAlertDTO {
+
+    private Long beerId;
+
+    private String name;
+
+    private Integer quantity;
+
+    private Integer max;
+
+    private StockThresholdUnit unit;
+
+    private Integer threshold;
+
+    private Instant raisedAt;
+}
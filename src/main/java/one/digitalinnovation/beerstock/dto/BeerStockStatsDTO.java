@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock totals of the beers of one type or brand; {@code fillRatio} is quantity over capacity.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockStatsDTO {
+
+    private String name;
+
+    private Long beers;
+
+    private Long quantity;
+
+    private Long capacity;
+
+    private Double fillRatio;
+}
@@ -0,0 +1,34 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockThresholdUnit;
+
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockThresholdDTO {
+
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private StockThresholdUnit unit;
+
+    @NotNull
+    @Min(1)
+    @Max(500)
+    private Integer threshold;
+
+    @NotNull
+    @Min(0)
+    @Max(500)
+    private Integer hysteresis;
+}
@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerTypeStockDTO {
+
+    private BeerType type;
+
+    private Long totalStock;
+
+    private Long beersAtZeroStock;
+}
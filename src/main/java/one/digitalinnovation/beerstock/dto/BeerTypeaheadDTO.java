@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A typeahead suggestion; {@code similarity} is the trigram similarity to the query, from 0 to 1.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerTypeaheadDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private Double similarity;
+}
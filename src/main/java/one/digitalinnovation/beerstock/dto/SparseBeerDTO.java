@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A {@link BeerDTO} read with a sparse fieldset, which leaves out the properties that were not
+ * asked for instead of writing them as null. Every other response keeps writing them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SparseBeerDTO extends BeerDTO {
+
+    public SparseBeerDTO(BeerDTO beerDTO) {
+        super(beerDTO.getId(), beerDTO.getName(), beerDTO.getBrand(), beerDTO.getMax(), beerDTO.getQuantity(),
+                beerDTO.getReserved(), beerDTO.getType(), beerDTO.getVersion());
+    }
+}
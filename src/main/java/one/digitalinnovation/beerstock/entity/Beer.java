@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import one.digitalinnovation.beerstock.enums.BeerType;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -12,21 +13,31 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Data
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
+// the search indexes end in id so a filtered page can resume after a cursor without sorting
+@Table(indexes = {
+        @Index(columnList = "change_sequence"),
+        @Index(name = "beer_type_brand_idx", columnList = "type, brand, id"),
+        @Index(name = "beer_brand_idx", columnList = "brand, id")})
 public class Beer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_sequence")
+    @SequenceGenerator(name = "beer_sequence", sequenceName = "beer_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String name;
 
-    @Column(nullable = false)
+    @Column(name = "brand", nullable = false)
     private String brand;
 
     @Column(nullable = false)
@@ -35,9 +46,29 @@ public class Beer {
     @Column(nullable = false)
     private int quantity;
 
-    @Enumerated(EnumType.STRING)
+    // held by active reservations, so the stock available to take is quantity - reserved
     @Column(nullable = false)
+    private int reserved;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
     private BeerType type;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // 0 keeps the stock in the quantity column, any other value spreads it over that many BeerStockShard rows
+    @Column(nullable = false)
+    private int stockShards;
+
+    // stamped by every change to the row, see BeerChangeSequence; changes to a sharded stock stamp the shard instead
+    @Column(name = "change_sequence", nullable = false)
+    private long changeSequence;
+
+    @Formula("(select sum(s.quantity) from beer_stock_shard s where s.beer_id = id)")
+    private Integer shardedQuantity;
 
+    @Formula("(select sum(s.version) from beer_stock_shard s where s.beer_id = id)")
+    private Long shardedVersion;
 }
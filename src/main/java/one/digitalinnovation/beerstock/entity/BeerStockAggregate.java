@@ -0,0 +1,58 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockStatsDimension;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Running stock totals of the beers of one type or brand whose id modulo {@link #SLOTS} is {@code slot}. Splitting
+ * each total over slots keeps concurrent stock changes to different beers of the same type from
+ * queueing on one row; the totals are the sums over the slots.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"dimension", "name", "slot"}))
+public class BeerStockAggregate {
+
+    public static final int SLOTS = 16;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_stock_aggregate_sequence")
+    @SequenceGenerator(name = "beer_stock_aggregate_sequence", sequenceName = "beer_stock_aggregate_sequence", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockStatsDimension dimension;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private long beers;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false)
+    private long capacity;
+}
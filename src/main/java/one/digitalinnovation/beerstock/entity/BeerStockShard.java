@@ -0,0 +1,53 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * One slice of a sharded beer stock. Each shard owns a fixed share of the beer max as its capacity,
+ * so keeping every shard between 0 and its capacity keeps the sum between 0 and the beer max.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"beer_id", "shard"}), indexes = @Index(columnList = "change_sequence"))
+public class BeerStockShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_stock_shard_sequence")
+    @SequenceGenerator(name = "beer_stock_shard_sequence", sequenceName = "beer_stock_shard_sequence", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "beer_id", nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    // bumped by every update so the beer version, which adds up its shards, moves with the stock
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "change_sequence", nullable = false)
+    private long changeSequence;
+}
@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockThresholdUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+
+/**
+ * Reorder point of one beer. Stock below {@code threshold} raises a low-stock alert, which only
+ * clears once the stock is back to {@code threshold + hysteresis}, both in {@code unit}.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockThreshold {
+
+    @Id
+    private Long beerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockThresholdUnit unit;
+
+    @Column(nullable = false)
+    private int threshold;
+
+    @Column(nullable = false)
+    private int hysteresis;
+}
@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Left behind by a deleted beer so catalog replicas syncing by change sequence learn about the
+ * delete. Beer ids come from a sequence and are never reused, so the beer id is the key.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(columnList = "change_sequence"))
+public class BeerTombstone {
+
+    @Id
+    private Long beerId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "change_sequence", nullable = false)
+    private long changeSequence;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+}
@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerChangeType {
+
+    CREATED("Created"),
+    STOCK_CHANGED("Stock changed"),
+    DELETED("Deleted");
+
+    private final String description;
+}
@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.exception.BeerFieldNotFoundException;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public enum BeerField {
+
+    ID("id"),
+    NAME("name"),
+    BRAND("brand"),
+    MAX("max"),
+    QUANTITY("quantity"),
+    RESERVED("reserved"),
+    TYPE("type");
+
+    // the BeerDTO property, which is also the Beer attribute it is read from
+    private final String property;
+
+    public static Set<BeerField> fromProperties(Collection<String> properties) throws BeerFieldNotFoundException {
+        Set<BeerField> fields = EnumSet.noneOf(BeerField.class);
+        for (String property : properties) {
+            fields.add(fromProperty(property.trim()));
+        }
+        return fields;
+    }
+
+    private static BeerField fromProperty(String property) throws BeerFieldNotFoundException {
+        for (BeerField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new BeerFieldNotFoundException(property);
+    }
+}
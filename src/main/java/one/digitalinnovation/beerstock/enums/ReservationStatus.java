@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ReservationStatus {
+
+    HELD("Held"),
+    CONFIRMED("Confirmed"),
+    CANCELLED("Cancelled"),
+    EXPIRED("Expired");
+
+    private final String description;
+}
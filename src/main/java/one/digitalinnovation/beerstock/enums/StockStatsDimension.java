@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockStatsDimension {
+
+    TYPE("Beer type"),
+    BRAND("Brand");
+
+    private final String description;
+}
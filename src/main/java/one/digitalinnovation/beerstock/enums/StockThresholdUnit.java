@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockThresholdUnit {
+
+    UNITS("Units of stock"),
+    PERCENT("Percentage of the beer max");
+
+    private final String description;
+}
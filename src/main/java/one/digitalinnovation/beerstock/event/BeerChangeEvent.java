@@ -0,0 +1,19 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+
+/**
+ * Published by {@code BeerService} for every change to a beer, with the beer as it was
+ * right after the change (or right before it, for a deletion).
+ */
+@Data
+@AllArgsConstructor
+public class BeerChangeEvent {
+
+    private final BeerChangeType type;
+
+    private final BeerDTO beer;
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerFieldNotFoundException extends Exception {
+
+    public BeerFieldNotFoundException(String field) {
+        super(String.format("Beer field %s not found, the fields are id, name, brand, max, quantity, reserved and type.", field));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerPageOutOfRangeException extends Exception {
+
+    public BeerPageOutOfRangeException(int page, int limit) {
+        super(String.format("Page %s of %s beers is out of range, use the after cursor to read that deep.", page, limit));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerReservationConflictException extends Exception {
+
+    public BeerReservationConflictException(Long id) {
+        super(String.format("Beer with ID %s cannot have stock reservations and stock shards at the same time", id));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BeerReservationNotFoundException extends Exception {
+
+    public BeerReservationNotFoundException(Long beerId, Long reservationId) {
+        super(String.format("Reservation with ID %s not found for beer with ID %s", reservationId, beerId));
+    }
+}
@@ -0,0 +1,13 @@
+package one.digitalinnovation.beerstock.exception;
+
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerReservationSettledException extends Exception {
+
+    public BeerReservationSettledException(Long reservationId, ReservationStatus status) {
+        super(String.format("Reservation with ID %s is no longer held: %s", reservationId, status.getDescription()));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerStockConflictException extends Exception {
+
+    public BeerStockConflictException(Long id, int attempts) {
+        super(String.format("Stock of beer with %s ID is being changed concurrently, gave up after %s attempts.", id, attempts));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class BeerVersionMismatchException extends Exception {
+
+    public BeerVersionMismatchException(Long id) {
+        super(String.format("Beer with %s ID does not match the given entity tag.", id));
+    }
+}
@@ -3,6 +3,7 @@ package one.digitalinnovation.beerstock.mapper;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,7 +11,15 @@ public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "reserved", ignore = true)
+    @Mapping(target = "stockShards", ignore = true)
+    @Mapping(target = "changeSequence", ignore = true)
+    @Mapping(target = "shardedQuantity", ignore = true)
+    @Mapping(target = "shardedVersion", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
+    @Mapping(target = "quantity", expression = "java(beer.getShardedQuantity() == null ? beer.getQuantity() : beer.getShardedQuantity())")
+    @Mapping(target = "version", expression = "java(beer.getShardedVersion() == null ? beer.getVersion() : beer.getVersion() + beer.getShardedVersion())")
     BeerDTO toDTO(Beer beer);
 }
@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.BeerReservationDTO;
+import one.digitalinnovation.beerstock.entity.BeerReservation;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface BeerReservationMapper {
+
+    BeerReservationMapper INSTANCE = Mappers.getMapper(BeerReservationMapper.class);
+
+    BeerReservationDTO toDTO(BeerReservation beerReservation);
+}
@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.BeerStockThresholdDTO;
+import one.digitalinnovation.beerstock.entity.BeerStockThreshold;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface BeerStockThresholdMapper {
+
+    BeerStockThresholdMapper INSTANCE = Mappers.getMapper(BeerStockThresholdMapper.class);
+
+    @Mapping(target = "beerId", ignore = true)
+    BeerStockThreshold toModel(BeerStockThresholdDTO beerStockThresholdDTO);
+
+    BeerStockThresholdDTO toDTO(BeerStockThreshold beerStockThreshold);
+}
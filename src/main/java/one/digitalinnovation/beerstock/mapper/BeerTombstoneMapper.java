@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.BeerTombstoneDTO;
+import one.digitalinnovation.beerstock.entity.BeerTombstone;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface BeerTombstoneMapper {
+
+    BeerTombstoneMapper INSTANCE = Mappers.getMapper(BeerTombstoneMapper.class);
+
+    @Mapping(source = "beerId", target = "id")
+    BeerTombstoneDTO toDTO(BeerTombstone beerTombstone);
+}
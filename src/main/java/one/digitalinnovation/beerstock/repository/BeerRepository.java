@@ -1,11 +1,156 @@
 package one.digitalinnovation.beerstock.repository;
 
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerVersionDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockAggregate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+
+public interface BeerRepository extends JpaRepository<Beer, Long>, JpaSpecificationExecutor<Beer>, BeerStockBatchRepository,
+        BeerSearchRepository {
+
+    int EXPORT_FETCH_SIZE = 500;
+
+    // keeps IN lists within what the database plans and caches well
+    int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    // builds BeerDTO straight from the columns, as BeerMapper.toDTO does from a managed entity
+    String BEER_DTO = "new one.digitalinnovation.beerstock.dto.BeerDTO(b.id, b.name, b.brand, b.max, " +
+            "coalesce(b.shardedQuantity, b.quantity), b.reserved, b.type, b.version + coalesce(b.shardedVersion, 0))";
 
     Optional<Beer> findByName(String name);
+
+    @Query("select " + BEER_DTO + " from Beer b")
+    List<BeerDTO> findAllDTOs();
+
+    @Query("select " + BEER_DTO + " from Beer b where b.name = :name")
+    Optional<BeerDTO> findDTOByName(@Param("name") String name);
+
+    @Query("select " + BEER_DTO + " from Beer b where b.name in :names")
+    List<BeerDTO> findDTOsByNameIn(@Param("names") Collection<String> names);
+
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerVersionDTO(b.id, b.version + coalesce(b.shardedVersion, 0)) from Beer b where b.name = :name")
+    Optional<BeerVersionDTO> findVersionByName(@Param("name") String name);
+
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerVersionDTO(b.id, b.version + coalesce(b.shardedVersion, 0)) from Beer b where b.id = :id")
+    Optional<BeerVersionDTO> findVersionById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Beer b where b.id = :id")
+    Optional<Beer> lockById(@Param("id") Long id);
+
+    @Query("select b.id, b.stockShards from Beer b where b.stockShards > 0")
+    List<Object[]> findStockShards();
+
+    @Query("select " + BEER_DTO + " from Beer b where b.changeSequence > :after and b.changeSequence <= :until order by b.changeSequence")
+    List<BeerDTO> findDTOsChangedBetween(@Param("after") long after, @Param("until") long until);
+
+    @Query("select " + BEER_DTO + " from Beer b where b.id in :ids")
+    List<BeerDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select max(b.changeSequence) from Beer b")
+    Optional<Long> findMaxChangeSequence();
+
+    @Query("select b.changeSequence from Beer b where b.changeSequence > :after and b.changeSequence <= :until order by b.changeSequence")
+    List<Long> findChangeSequencesBetween(@Param("after") long after, @Param("until") long until, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select " + BEER_DTO + " from Beer b order by b.id")
+    Stream<BeerDTO> streamAllDTOsOrderedById();
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select b.name from Beer b")
+    Stream<String> streamAllNames();
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select b.id, b.name, b.brand from Beer b")
+    Stream<Object[]> streamAllNamesAndBrands();
+
+    @Query("select b.name from Beer b where b.name in :names")
+    List<String> findNamesByNameIn(@Param("names") Collection<String> names);
+
+    // type and number of beers of the type with no units in stock
+    @Query("select b.type, count(b) from Beer b where coalesce(b.shardedQuantity, b.quantity) = 0 group by b.type")
+    List<Object[]> countZeroStockByType();
+
+    // type, brand, aggregate slot, beers, quantity and capacity, the ground truth of BeerStockAggregate
+    @Query("select b.type, b.brand, mod(b.id, " + BeerStockAggregate.SLOTS + "), count(b), sum(coalesce(b.shardedQuantity, b.quantity)), sum(b.max) " +
+            "from Beer b group by b.type, b.brand, mod(b.id, " + BeerStockAggregate.SLOTS + ")")
+    List<Object[]> sumStockByTypeBrandAndSlot();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity + :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.stockShards = 0 and b.quantity + :quantity between b.reserved and b.max")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity - :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.stockShards = 0 and b.quantity - :quantity between b.reserved and b.max")
+    int decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity + :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.stockShards = 0 and b.version = :version and b.quantity + :quantity between b.reserved and b.max")
+    int incrementQuantityAtVersion(@Param("id") Long id, @Param("quantity") int quantity, @Param("version") long version,
+                                   @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity - :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.stockShards = 0 and b.version = :version and b.quantity - :quantity between b.reserved and b.max")
+    int decrementQuantityAtVersion(@Param("id") Long id, @Param("quantity") int quantity, @Param("version") long version,
+                                   @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.stockShards = :stockShards, b.quantity = :quantity, b.version = b.version + :versionIncrement, b.changeSequence = :changeSequence " +
+            "where b.id = :id")
+    int updateStockShards(@Param("id") Long id, @Param("stockShards") int stockShards, @Param("quantity") int quantity,
+                          @Param("versionIncrement") long versionIncrement, @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.stockShards = 0 and b.quantity = :expected and b.reserved <= :quantity")
+    int compareAndSetQuantity(@Param("id") Long id, @Param("expected") int expected, @Param("quantity") int quantity,
+                              @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.reserved = b.reserved + :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.stockShards = 0 and b.quantity - b.reserved - :quantity >= 0")
+    int holdQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.reserved = b.reserved - :quantity, b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.reserved >= :quantity")
+    int releaseQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity - :quantity, b.reserved = b.reserved - :quantity, " +
+            "b.version = b.version + 1, b.changeSequence = :changeSequence " +
+            "where b.id = :id and b.reserved >= :quantity and b.quantity - :quantity >= 0")
+    int takeReservedQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSequence") long changeSequence);
 }
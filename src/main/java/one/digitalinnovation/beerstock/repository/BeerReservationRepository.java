@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerReservation;
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BeerReservationRepository extends JpaRepository<BeerReservation, Long> {
+
+    Optional<BeerReservation> findByIdAndBeerId(Long id, Long beerId);
+
+    List<BeerReservation> findByStatus(ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from BeerReservation r where r.id in :ids and r.status = :status and r.expiresAt <= :now order by r.id")
+    List<BeerReservation> lockExpired(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status,
+                                      @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerReservation r set r.status = :status where r.id = :id and r.status = :expected and r.expiresAt > :now")
+    int settle(@Param("id") Long id, @Param("expected") ReservationStatus expected, @Param("status") ReservationStatus status,
+               @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerReservation r set r.status = :status where r.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerReservation r where r.beerId = :beerId")
+    int deleteByBeerId(@Param("beerId") Long beerId);
+}
@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+public interface BeerSearchRepository {
+
+    /**
+     * Reads up to {@code limit} beers matching the specification from {@code offset} on. With
+     * {@code fields}, only those columns and the id are selected and the other properties are
+     * left null; without, every property is read like {@link BeerRepository#BEER_DTO}.
+     */
+    List<BeerDTO> findDTOs(Specification<Beer> specification, Set<BeerField> fields, Sort sort, long offset, int limit);
+}
@@ -0,0 +1,117 @@
+package one.digitalinnovation.beerstock.repository;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerSearchRepositoryImpl implements BeerSearchRepository {
+
+    private final EntityManager entityManager;
+
+    // JpaSpecificationExecutor only limits through a Page, which counts the matches of every full page
+    @Override
+    public List<BeerDTO> findDTOs(Specification<Beer> specification, Set<BeerField> fields, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        if (fields == null) {
+            CriteriaQuery<BeerDTO> query = cb.createQuery(BeerDTO.class);
+            Root<Beer> root = query.from(Beer.class);
+            // same columns as BeerRepository.BEER_DTO
+            query.select(cb.construct(BeerDTO.class,
+                    root.get("id"),
+                    root.get("name"),
+                    root.get("brand"),
+                    root.get("max"),
+                    stock(root, cb),
+                    root.get("reserved"),
+                    root.get("type"),
+                    cb.sum(root.<Long>get("version"), cb.coalesce(root.<Long>get("shardedVersion"), 0L))));
+            return find(query, root, specification, sort, offset, limit);
+        }
+        // the id is always read, as cursors are built from it
+        Set<BeerField> selectedFields = EnumSet.of(BeerField.ID);
+        selectedFields.addAll(fields);
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Beer> root = query.from(Beer.class);
+        query.multiselect(selectedFields.stream()
+                .map(field -> column(root, cb, field).alias(field.getProperty()))
+                .collect(Collectors.<Selection<?>>toList()));
+        return find(query, root, specification, sort, offset, limit).stream()
+                .map(tuple -> toDTO(tuple, selectedFields))
+                .collect(Collectors.toList());
+    }
+
+    private <T> List<T> find(CriteriaQuery<T> query, Root<Beer> root, Specification<Beer> specification, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Expression<?> column(Root<Beer> root, CriteriaBuilder cb, BeerField field) {
+        return field == BeerField.QUANTITY ? stock(root, cb) : root.get(field.getProperty());
+    }
+
+    private static Expression<Integer> stock(Root<Beer> root, CriteriaBuilder cb) {
+        return cb.coalesce(root.<Integer>get("shardedQuantity"), root.<Integer>get("quantity"));
+    }
+
+    private static BeerDTO toDTO(Tuple tuple, Set<BeerField> fields) {
+        BeerDTO beerDTO = new BeerDTO();
+        for (BeerField field : fields) {
+            Object value = tuple.get(field.getProperty());
+            switch (field) {
+                case ID:
+                    beerDTO.setId((Long) value);
+                    break;
+                case NAME:
+                    beerDTO.setName((String) value);
+                    break;
+                case BRAND:
+                    beerDTO.setBrand((String) value);
+                    break;
+                case MAX:
+                    beerDTO.setMax((Integer) value);
+                    break;
+                case QUANTITY:
+                    beerDTO.setQuantity((Integer) value);
+                    break;
+                case RESERVED:
+                    beerDTO.setReserved((Integer) value);
+                    break;
+                case TYPE:
+                    beerDTO.setType((BeerType) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unmapped beer field " + field);
+            }
+        }
+        return beerDTO;
+    }
+}
@@ -0,0 +1,71 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+
+/**
+ * Building blocks of the beer search. Each returns null for a missing filter, which
+ * {@link Specification#and} skips, so a search only carries the predicates it was given.
+ * <p>
+ * Type and brand are plain equalities on the leading columns of the search indexes. Stock
+ * bounds go through the shards of a sharded beer, so they only narrow the rows those
+ * indexes already picked.
+ */
+public final class BeerSpecifications {
+
+    private BeerSpecifications() {
+    }
+
+    public static Specification<Beer> matching(BeerSearchDTO search, Long after) {
+        return Specification.where(idAfter(after))
+                .and(hasType(search.getType()))
+                .and(hasBrand(search.getBrand()))
+                .and(stockAtLeast(search.getMinQuantity()))
+                .and(stockAtMost(search.getMaxQuantity()))
+                .and(fillRatioAtLeast(search.getMinFillRatio()))
+                .and(fillRatioAtMost(search.getMaxFillRatio()));
+    }
+
+    public static Specification<Beer> idAfter(Long after) {
+        return after == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), after);
+    }
+
+    public static Specification<Beer> hasType(BeerType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Beer> hasBrand(String brand) {
+        return brand == null ? null : (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Beer> stockAtLeast(Integer quantity) {
+        return quantity == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(stock(root, cb), quantity);
+    }
+
+    public static Specification<Beer> stockAtMost(Integer quantity) {
+        return quantity == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(stock(root, cb), quantity);
+    }
+
+    // stock >= ratio * max rather than stock / max >= ratio, so an empty max never divides
+    public static Specification<Beer> fillRatioAtLeast(Double ratio) {
+        return ratio == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(stock(root, cb).as(Double.class), capacityShare(root, cb, ratio));
+    }
+
+    public static Specification<Beer> fillRatioAtMost(Double ratio) {
+        return ratio == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(stock(root, cb).as(Double.class), capacityShare(root, cb, ratio));
+    }
+
+    private static Expression<Integer> stock(Root<Beer> root, CriteriaBuilder cb) {
+        return cb.coalesce(root.<Integer>get("shardedQuantity"), root.<Integer>get("quantity"));
+    }
+
+    private static Expression<Double> capacityShare(Root<Beer> root, CriteriaBuilder cb, double ratio) {
+        return cb.prod(root.<Integer>get("max").as(Double.class), ratio);
+    }
+}
@@ -0,0 +1,39 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerStockAggregate;
+import one.digitalinnovation.beerstock.enums.StockStatsDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+public interface BeerStockAggregateRepository extends JpaRepository<BeerStockAggregate, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BeerStockAggregate a where a.dimension = :dimension and a.name = :name order by a.slot")
+    List<BeerStockAggregate> lockByDimensionAndName(@Param("dimension") StockStatsDimension dimension, @Param("name") String name);
+
+    // name and quantity summed over the slots, for every type or every brand
+    @Query("select a.name, sum(a.quantity) from BeerStockAggregate a where a.dimension = :dimension group by a.name")
+    List<Object[]> sumQuantityByName(@Param("dimension") StockStatsDimension dimension);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerStockAggregate a set a.beers = a.beers + :beers, a.quantity = a.quantity + :quantity, a.capacity = a.capacity + :capacity " +
+            "where a.dimension = :dimension and a.name = :name and a.slot = :slot")
+    int adjust(@Param("dimension") StockStatsDimension dimension, @Param("name") String name, @Param("slot") int slot,
+               @Param("beers") long beers, @Param("quantity") long quantity, @Param("capacity") long capacity);
+
+    // the type and brand rows of the beer in one statement, found through the beer itself
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update beer_stock_aggregate set quantity = quantity + :quantity where slot = :slot and (" +
+            "dimension = 'TYPE' and name = (select type from beer where id = :id) or " +
+            "dimension = 'BRAND' and name = (select brand from beer where id = :id))")
+    int adjustQuantity(@Param("id") Long id, @Param("slot") int slot, @Param("quantity") long quantity);
+}
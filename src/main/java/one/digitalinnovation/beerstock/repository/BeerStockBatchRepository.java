@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+
+import java.util.List;
+
+public interface BeerStockBatchRepository {
+
+    // the i-th adjustment is stamped with firstChangeSequence + i
+    int[] adjustQuantities(List<StockAdjustmentDTO> adjustments, long firstChangeSequence);
+
+    // one row update standing for several changes moves the version once per change
+    int[] adjustQuantities(List<StockAdjustmentDTO> adjustments, int[] versionIncrements, long firstChangeSequence);
+}
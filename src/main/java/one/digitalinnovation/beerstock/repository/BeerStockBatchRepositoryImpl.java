@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.repository;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockBatchRepositoryImpl implements BeerStockBatchRepository {
+
+    private static final String ADJUST_QUANTITY_SQL = "update beer set quantity = quantity + ?, version = version + ?, change_sequence = ? " +
+            "where id = ? and stock_shards = 0 and quantity + ? between reserved and max";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Statements run in list order, so callers sorting by id lock rows in id order.
+    @Override
+    public int[] adjustQuantities(List<StockAdjustmentDTO> adjustments, long firstChangeSequence) {
+        int[] versionIncrements = new int[adjustments.size()];
+        Arrays.fill(versionIncrements, 1);
+        return adjustQuantities(adjustments, versionIncrements, firstChangeSequence);
+    }
+
+    @Override
+    public int[] adjustQuantities(List<StockAdjustmentDTO> adjustments, int[] versionIncrements, long firstChangeSequence) {
+        List<Object[]> batchArgs = IntStream.range(0, adjustments.size())
+                .mapToObj(i -> new Object[]{adjustments.get(i).getQuantity(), versionIncrements[i], firstChangeSequence + i,
+                        adjustments.get(i).getId(), adjustments.get(i).getQuantity()})
+                .collect(Collectors.toList());
+        return jdbcTemplate.batchUpdate(ADJUST_QUANTITY_SQL, batchArgs);
+    }
+}
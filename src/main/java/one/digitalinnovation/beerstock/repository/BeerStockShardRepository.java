@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerStockShard;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+public interface BeerStockShardRepository extends JpaRepository<BeerStockShard, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from BeerStockShard s where s.beerId = :beerId order by s.shard")
+    List<BeerStockShard> lockByBeerId(@Param("beerId") Long beerId);
+
+    @Query("select distinct s.beerId from BeerStockShard s where s.changeSequence > :after and s.changeSequence <= :until")
+    List<Long> findBeerIdsChangedBetween(@Param("after") long after, @Param("until") long until);
+
+    @Query("select s.changeSequence from BeerStockShard s where s.changeSequence > :after and s.changeSequence <= :until order by s.changeSequence")
+    List<Long> findChangeSequencesBetween(@Param("after") long after, @Param("until") long until, Pageable pageable);
+
+    @Query("select max(s.changeSequence) from BeerStockShard s")
+    Optional<Long> findMaxChangeSequence();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerStockShard s set s.quantity = s.quantity + :quantity, s.version = s.version + 1, s.changeSequence = :changeSequence " +
+            "where s.beerId = :beerId and s.shard = :shard and s.quantity + :quantity between 0 and s.capacity")
+    int adjustQuantity(@Param("beerId") Long beerId, @Param("shard") int shard, @Param("quantity") int quantity,
+                       @Param("changeSequence") long changeSequence);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerStockShard s where s.beerId = :beerId")
+    int deleteByBeerId(@Param("beerId") Long beerId);
+}
@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerStockThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface BeerStockThresholdRepository extends JpaRepository<BeerStockThreshold, Long> {
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerStockThreshold t where t.beerId = :beerId")
+    int deleteByBeerId(@Param("beerId") Long beerId);
+}
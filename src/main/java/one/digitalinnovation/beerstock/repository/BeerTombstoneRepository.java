@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface BeerTombstoneRepository extends JpaRepository<BeerTombstone, Long> {
+
+    @Query("select t from BeerTombstone t where t.changeSequence > :after and t.changeSequence <= :until order by t.changeSequence")
+    List<BeerTombstone> findChangedBetween(@Param("after") long after, @Param("until") long until);
+
+    @Query("select t.changeSequence from BeerTombstone t where t.changeSequence > :after and t.changeSequence <= :until order by t.changeSequence")
+    List<Long> findChangeSequencesBetween(@Param("after") long after, @Param("until") long until, Pageable pageable);
+
+    @Query("select min(t.changeSequence) from BeerTombstone t")
+    Optional<Long> findMinChangeSequence();
+
+    @Query("select max(t.changeSequence) from BeerTombstone t")
+    Optional<Long> findMaxChangeSequence();
+
+    @Query("select max(t.changeSequence) from BeerTombstone t where t.deletedAt < :deletedBefore")
+    Optional<Long> findMaxChangeSequenceDeletedBefore(@Param("deletedBefore") Instant deletedBefore);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerTombstone t where t.changeSequence <= :upTo")
+    int deleteUpTo(@Param("upTo") long upTo);
+}
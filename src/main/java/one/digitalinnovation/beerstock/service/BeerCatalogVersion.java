@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide change counter used to tag beer listings. The boot time keeps tags
+ * from a previous run from matching, and changes made inside a transaction only
+ * count once it commits, so a listing is never tagged ahead of the data it shows.
+ */
+@Component
+public class BeerCatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong changes = new AtomicLong();
+
+    public String current() {
+        return epoch + "." + changes.get();
+    }
+
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    changes.incrementAndGet();
+                }
+            });
+        } else {
+            changes.incrementAndGet();
+        }
+    }
+}
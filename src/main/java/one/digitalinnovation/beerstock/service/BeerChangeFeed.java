@@ -0,0 +1,283 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerChangeDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangeGapDTO;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Server-Sent Events feed of committed beer changes.
+ * <p>
+ * Changes are numbered in commit order and written into a fixed-size ring, overwriting the
+ * oldest, so publishing never waits on a reader. Each subscriber keeps its own cursor and is
+ * drained by a small sender pool; a slow client only holds up its own cursor. A subscriber
+ * whose cursor falls behind the ring, or that resumes from a {@code Last-Event-ID} the ring no
+ * longer holds, gets a {@code gap} event naming the missed sequences before the feed carries on
+ * from the oldest change still held.
+ * <p>
+ * A client that stops reading would still pin a sender inside a blocked write, so the heartbeat
+ * task drops any subscriber whose write has been stuck past {@code send-timeout}, interrupting
+ * its sender. Connections also end after {@code timeout}; clients resume with
+ * {@code Last-Event-ID}.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, the epoch being the boot time, so an id from before
+ * a restart is recognised as such instead of being matched against the new numbering.
+ */
+@Component
+public class BeerChangeFeed implements SmartLifecycle {
+
+    public static final String GAP_EVENT = "gap";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final BeerStockProperties.ChangeFeed properties;
+    private final AtomicReferenceArray<BeerChangeDTO> ring;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter missedChanges;
+    private final Counter droppedSubscribers;
+
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeats;
+    private volatile boolean running;
+
+    public BeerChangeFeed(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getChangeFeed();
+        this.ring = new AtomicReferenceArray<>(this.properties.getCapacity());
+        Gauge.builder("beerstock.changes.subscribers", subscribers, Set::size)
+                .description("Clients connected to the beer change feed")
+                .register(meterRegistry);
+        this.missedChanges = Counter.builder("beerstock.changes.missed")
+                .description("Changes overwritten in the ring before a subscriber could read them")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("beerstock.changes.dropped")
+                .description("Subscribers disconnected because a write to them stalled")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChange(BeerChangeEvent event) {
+        long sequence = lastSequence.incrementAndGet();
+        ring.set(slot(sequence), new BeerChangeDTO(sequence, event.getType(), event.getBeer(), Instant.now()));
+        subscribers.forEach(this::signal);
+    }
+
+    public long lastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * Opens a feed starting after {@code lastEventId}, or at the next change when it is null.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        if (lastEventId == null) {
+            subscriber.cursor = lastSequence.get() + 1;
+        } else if (lastEventId.startsWith(epoch + "-")) {
+            subscriber.cursor = parseSequence(lastEventId.substring(epoch.length() + 1)) + 1;
+        } else {
+            subscriber.restarted = true;
+            subscriber.cursor = 1;
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        signal(subscriber);
+        return emitter;
+    }
+
+    private long parseSequence(String sequence) {
+        try {
+            return Math.min(Long.parseLong(sequence), lastSequence.get());
+        } catch (NumberFormatException e) {
+            return lastSequence.get();
+        }
+    }
+
+    private void signal(Subscriber subscriber) {
+        if (running && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        long cursor;
+        try {
+            boolean sent = false;
+            if (subscriber.restarted) {
+                subscriber.restarted = false;
+                send(subscriber, gap(null, oldestSequence() - 1));
+                subscriber.cursor = oldestSequence();
+                sent = true;
+            }
+            while (subscriber.cursor <= lastSequence.get()) {
+                BeerChangeDTO change = ring.get(slot(subscriber.cursor));
+                if (change == null || change.getSequence() < subscriber.cursor) {
+                    // the sequence is taken but its writer has not filled the slot yet; it signals when it does
+                    break;
+                }
+                if (change.getSequence() > subscriber.cursor) {
+                    long oldest = oldestSequence();
+                    missedChanges.increment(oldest - subscriber.cursor);
+                    send(subscriber, gap(subscriber.cursor, oldest - 1));
+                    subscriber.cursor = oldest;
+                } else {
+                    send(subscriber, SseEmitter.event()
+                            .id(epoch + "-" + change.getSequence())
+                            .name(change.getType().name())
+                            .data(change, MediaType.APPLICATION_JSON));
+                    subscriber.cursor++;
+                }
+                sent = true;
+            }
+            if (subscriber.heartbeatDue.getAndSet(false) && !sent) {
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+            cursor = subscriber.cursor;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // a change published while this drain was finishing would otherwise wait for the next one
+        BeerChangeDTO next = ring.get(slot(cursor));
+        if (next != null && next.getSequence() >= cursor) {
+            signal(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (subscriber) {
+            if (subscriber.dropped) {
+                throw new IOException("Change feed subscriber stopped reading");
+            }
+            subscriber.sender = Thread.currentThread();
+            subscriber.sendStartedAt = System.nanoTime();
+        }
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            synchronized (subscriber) {
+                subscriber.sender = null;
+            }
+        }
+    }
+
+    // the emitter stays locked by the blocked write, so the sender completes it once interrupted
+    private boolean dropIfStalled(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.sender == null || System.nanoTime() - subscriber.sendStartedAt < properties.getSendTimeout().toNanos()) {
+                return false;
+            }
+            subscriber.dropped = true;
+            subscriber.sender.interrupt();
+        }
+        subscribers.remove(subscriber);
+        droppedSubscribers.increment();
+        return true;
+    }
+
+    private SseEmitter.SseEventBuilder gap(Long fromSequence, long toSequence) {
+        return SseEmitter.event()
+                .name(GAP_EVENT)
+                .data(new BeerChangeGapDTO(fromSequence, toSequence), MediaType.APPLICATION_JSON);
+    }
+
+    private long oldestSequence() {
+        return Math.max(1, lastSequence.get() - ring.length() + 1);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "beer-change-feed-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beer-change-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHeartbeat().toMillis();
+        heartbeats.scheduleWithFixedDelay(() -> subscribers.forEach(subscriber -> {
+            if (!dropIfStalled(subscriber)) {
+                subscriber.heartbeatDue.set(true);
+                signal(subscriber);
+            }
+        }), interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        // only touched by the sender draining this subscriber, handed over through draining
+        private long cursor;
+        private boolean restarted;
+        // guarded by the subscriber, so a stalled write is never confused with a later one
+        private Thread sender;
+        private long sendStartedAt;
+        private boolean dropped;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package one.digitalinnovation.beerstock.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the monotonic change sequence stamped on every beer mutation, so catalog replicas
+ * can ask for what changed after the last sequence they saw.
+ * <p>
+ * Sequences are taken before their statement runs but become visible only when it commits,
+ * and a longer transaction can commit after a shorter one that took a later sequence. Each
+ * sequence is therefore tracked until its transaction completes, and readers are only ever
+ * given the {@link #watermark() watermark}: the highest sequence with no earlier one still in
+ * flight. A replica resuming from the watermark never skips a change that committed late.
+ * <p>
+ * A mutation writing many rows takes one sequence per row with {@link #stampEach}, so a delta
+ * page, which never splits a sequence, can still stop anywhere within it.
+ */
+@Component
+public class BeerChangeSequence {
+
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long last;
+
+    /**
+     * Runs {@code mutation} with the next sequence, which stays in flight until the surrounding
+     * transaction completes or, without one, until the mutation returns.
+     */
+    public <T> T stamp(LongFunction<T> mutation) {
+        return stampEach(1, mutation);
+    }
+
+    /**
+     * Runs {@code mutation} with the first of {@code count} consecutive sequences, one for each
+     * row it writes. They stay in flight together, until the surrounding transaction completes or,
+     * without one, until the mutation returns.
+     */
+    public <T> T stampEach(int count, LongFunction<T> mutation) {
+        long sequence;
+        synchronized (inFlight) {
+            sequence = last + 1;
+            last += Math.max(count, 1);
+            // the first is enough to hold the watermark below all of them
+            inFlight.add(sequence);
+        }
+        boolean deferred = false;
+        try {
+            T result = mutation.apply(sequence);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        complete(sequence);
+                    }
+                });
+                deferred = true;
+            }
+            return result;
+        } finally {
+            if (!deferred) {
+                complete(sequence);
+            }
+        }
+    }
+
+    /**
+     * The highest sequence at or below which every stamped change has either committed or rolled back.
+     */
+    public long watermark() {
+        synchronized (inFlight) {
+            return inFlight.isEmpty() ? last : inFlight.first() - 1;
+        }
+    }
+
+    // resumes the numbering past what is already stored, never moving it back
+    public void advanceTo(long sequence) {
+        synchronized (inFlight) {
+            last = Math.max(last, sequence);
+        }
+    }
+
+    private void complete(long sequence) {
+        synchronized (inFlight) {
+            inFlight.remove(sequence);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerDeltaDTO;
+import one.digitalinnovation.beerstock.dto.BeerTombstoneDTO;
+import one.digitalinnovation.beerstock.mapper.BeerTombstoneMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerSpecifications;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Answers catalog replicas asking what changed after the last change sequence they saw: the beers
+ * stamped since, found through the index on the sequence column, and the tombstones of the beers
+ * deleted since.
+ * <p>
+ * Tombstones are only kept for {@code tombstone-retention}. Purging them raises the horizon, the
+ * sequence a replica must have reached to still be told about every delete, and a replica behind
+ * it gets a full snapshot instead. The newest tombstone always survives the purge, so after a
+ * restart the numbering resumes past every delete even once no beer is left. Which tombstones an
+ * earlier run purged is not recorded, so at startup the horizon is put just below the oldest one
+ * still kept, or at the current sequence when there is none.
+ * <p>
+ * Both answers are bounded by a page size. A delta stops at the sequence of its {@code limit}-th
+ * change, never splitting the changes stamped with one sequence; writes of many beers take a
+ * sequence per beer, so only the shards of one beer share one. A snapshot is read in id order
+ * with the keyset paging of the beer list; changes made while it is paged come in the deltas after
+ * the sequence of its first page.
+ */
+@Slf4j
+@Component
+public class BeerDeltaSync implements SmartLifecycle {
+
+    private final BeerRepository beerRepository;
+    private final BeerStockShardRepository shardRepository;
+    private final BeerTombstoneRepository tombstoneRepository;
+    private final BeerChangeSequence beerChangeSequence;
+    private final BeerStockProperties.DeltaSync properties;
+    private final BeerTombstoneMapper beerTombstoneMapper = BeerTombstoneMapper.INSTANCE;
+    private final Counter snapshots;
+
+    private ScheduledExecutorService purger;
+    private volatile long horizon;
+    private volatile boolean running;
+
+    public BeerDeltaSync(BeerRepository beerRepository, BeerStockShardRepository shardRepository,
+                         BeerTombstoneRepository tombstoneRepository, BeerChangeSequence beerChangeSequence,
+                         BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.shardRepository = shardRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.beerChangeSequence = beerChangeSequence;
+        this.properties = properties.getDeltaSync();
+        this.snapshots = Counter.builder("beerstock.delta.sync.snapshots")
+                .description("Delta sync requests answered with the full catalog because the replica was too far behind")
+                .register(meterRegistry);
+    }
+
+    public BeerDeltaDTO changesSince(long since, int limit) {
+        int pageSize = toPageSize(limit);
+        long watermark = beerChangeSequence.watermark();
+        if (since >= horizon && since <= watermark) {
+            long until = pageEnd(since, watermark, pageSize);
+            List<BeerTombstoneDTO> tombstones = tombstoneRepository.findChangedBetween(since, until).stream()
+                    .map(beerTombstoneMapper::toDTO)
+                    .collect(Collectors.toList());
+            List<BeerDTO> upserts = changedBetween(since, until);
+            // checked again as a purge running meanwhile may have taken tombstones this replica needed
+            if (since >= horizon) {
+                return new BeerDeltaDTO(until, false, upserts, tombstones, until < watermark, null);
+            }
+        }
+        snapshots.increment();
+        return snapshotPage(watermark, null, pageSize);
+    }
+
+    // the snapshot keeps the sequence of its first page, so every change made while it is paged follows it
+    public BeerDeltaDTO snapshotAfter(long sequence, long after, int limit) {
+        return snapshotPage(sequence, after, toPageSize(limit));
+    }
+
+    public int purgeTombstones() {
+        Instant deletedBefore = Instant.now().minus(properties.getTombstoneRetention());
+        Long expired = tombstoneRepository.findMaxChangeSequenceDeletedBefore(deletedBefore).orElse(null);
+        if (expired == null) {
+            return 0;
+        }
+        long upTo = Math.min(expired, tombstoneRepository.findMaxChangeSequence().orElse(expired) - 1);
+        // raised before the delete, so a reader that misses a purged tombstone also sees the new horizon
+        horizon = Math.max(horizon, upTo);
+        return tombstoneRepository.deleteUpTo(upTo);
+    }
+
+    public long horizon() {
+        return horizon;
+    }
+
+    private BeerDeltaDTO snapshotPage(long sequence, Long after, int pageSize) {
+        // one extra row tells whether there is a next page, as in BeerService.listPage
+        List<BeerDTO> beers = beerRepository.findDTOs(BeerSpecifications.idAfter(after), null, Sort.by("id"), 0, pageSize + 1);
+        List<BeerDTO> beerDTOs = beers.subList(0, Math.min(beers.size(), pageSize));
+        Long nextCursor = beers.size() > pageSize ? beerDTOs.get(pageSize - 1).getId() : null;
+        return new BeerDeltaDTO(sequence, true, beerDTOs, List.of(), nextCursor != null, nextCursor);
+    }
+
+    // the sequence of the limit-th change; each source gives at most its first limit, which is enough to find it
+    private long pageEnd(long since, long watermark, int pageSize) {
+        Pageable firstChanges = PageRequest.of(0, pageSize);
+        List<Long> sequences = new ArrayList<>(beerRepository.findChangeSequencesBetween(since, watermark, firstChanges));
+        sequences.addAll(shardRepository.findChangeSequencesBetween(since, watermark, firstChanges));
+        sequences.addAll(tombstoneRepository.findChangeSequencesBetween(since, watermark, firstChanges));
+        if (sequences.size() <= pageSize) {
+            return watermark;
+        }
+        Collections.sort(sequences);
+        return sequences.get(pageSize - 1);
+    }
+
+    private int toPageSize(int limit) {
+        return Math.min(Math.max(limit, 1), BeerService.MAX_PAGE_SIZE);
+    }
+
+    // stamped sharded stock changes leave the beer row alone, so their beers are found through the shards
+    private List<BeerDTO> changedBetween(long since, long until) {
+        List<BeerDTO> beers = new ArrayList<>(beerRepository.findDTOsChangedBetween(since, until));
+        Set<Long> ids = beers.stream().map(BeerDTO::getId).collect(Collectors.toSet());
+        List<Long> shardedIds = shardRepository.findBeerIdsChangedBetween(since, until).stream()
+                .filter(id -> !ids.contains(id))
+                .collect(Collectors.toList());
+        for (int from = 0; from < shardedIds.size(); from += BeerRepository.IN_CLAUSE_CHUNK_SIZE) {
+            beers.addAll(beerRepository.findDTOsByIdIn(shardedIds.subList(from, Math.min(from + BeerRepository.IN_CLAUSE_CHUNK_SIZE, shardedIds.size()))));
+        }
+        return beers;
+    }
+
+    private void purgeQuietly() {
+        try {
+            purgeTombstones();
+        } catch (RuntimeException e) {
+            log.error("Could not purge expired beer tombstones, retrying in {}", properties.getPurgeInterval(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        long newest = Stream.of(beerRepository.findMaxChangeSequence(), shardRepository.findMaxChangeSequence(),
+                        tombstoneRepository.findMaxChangeSequence())
+                .mapToLong(sequence -> sequence.orElse(0L))
+                .max()
+                .orElse(0L);
+        beerChangeSequence.advanceTo(newest);
+        horizon = tombstoneRepository.findMinChangeSequence().map(sequence -> sequence - 1).orElse(newest);
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beer-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPurgeInterval().toMillis();
+        purger.scheduleWithFixedDelay(this::purgeQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        purger.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // starts before the web server, so no change is stamped before the numbering resumes
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,74 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent lookups for the same beer name into a single repository call.
+ * Callers arriving while a lookup is in flight wait for it and share its outcome,
+ * including an empty result for names that are not registered.
+ */
+@Component
+public class BeerLookupCoalescer {
+
+    private static final String LOOKUP_REQUESTS_METRIC = "beerstock.lookup.requests";
+
+    private final ConcurrentMap<String, CompletableFuture<Optional<BeerDTO>>> inFlightLookups = new ConcurrentHashMap<>();
+    private final Counter executedLookups;
+    private final Counter coalescedLookups;
+
+    public BeerLookupCoalescer(MeterRegistry meterRegistry) {
+        this.executedLookups = Counter.builder(LOOKUP_REQUESTS_METRIC)
+                .description("Beer lookups by name that reached the repository")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedLookups = Counter.builder(LOOKUP_REQUESTS_METRIC)
+                .description("Beer lookups by name answered by a lookup already in flight")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public Optional<BeerDTO> lookup(String name, Function<String, Optional<BeerDTO>> loader) {
+        CompletableFuture<Optional<BeerDTO>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<BeerDTO>> inFlightLookup = inFlightLookups.putIfAbsent(name, lookup);
+        if (inFlightLookup != null) {
+            coalescedLookups.increment();
+            return awaitInFlight(inFlightLookup);
+        }
+
+        executedLookups.increment();
+        try {
+            Optional<BeerDTO> result = loader.apply(name);
+            lookup.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(name, lookup);
+        }
+    }
+
+    private Optional<BeerDTO> awaitInFlight(CompletableFuture<Optional<BeerDTO>> inFlightLookup) {
+        try {
+            return inFlightLookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Counting Bloom filter of registered beer names, used to answer definite misses without a query.
+ * Counters are 4 bits wide and stop counting once saturated, so deletes never cause false negatives.
+ * It only sees writes made through this instance, like the beersByName cache.
+ */
+@Slf4j
+@Component
+public class BeerNameFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final boolean enabled;
+    private final int counterCount;
+    private final int hashFunctions;
+    private final AtomicLongArray counters;
+    private final AtomicLong names = new AtomicLong();
+    private volatile boolean ready;
+
+    public BeerNameFilter(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        BeerStockProperties.NameFilter nameFilter = properties.getNameFilter();
+        int expectedInsertions = Math.max(nameFilter.getExpectedInsertions(), 1);
+        double falsePositiveProbability = nameFilter.getFalsePositiveProbability();
+        this.enabled = nameFilter.isEnabled();
+        this.counterCount = optimalCounterCount(expectedInsertions, falsePositiveProbability);
+        this.hashFunctions = optimalHashFunctions(expectedInsertions, counterCount);
+        this.counters = new AtomicLongArray((counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+
+        Gauge.builder("beerstock.name.filter.memory", this, BeerNameFilter::memoryBytes)
+                .description("Memory used by the beer name filter counters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.name.filter.names", names, AtomicLong::get)
+                .description("Beer names currently counted by the name filter")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.name.filter.false.positive.probability", this, BeerNameFilter::estimatedFalsePositiveProbability)
+                .description("Estimated false positive probability of the name filter at its current load")
+                .register(meterRegistry);
+    }
+
+    public boolean mightContain(String name) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        long hash = hash(name);
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            if (counterAt(counterIndex(firstHash, secondHash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String name) {
+        forEachCounter(name, this::incrementCounter);
+        names.incrementAndGet();
+    }
+
+    // names are added before the insert, but only leave once the delete has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChange(BeerChangeEvent event) {
+        if (event.getType() == BeerChangeType.DELETED) {
+            remove(event.getBeer().getName());
+        }
+    }
+
+    // ignored until populated: a removal racing the initial load could hide another name
+    public void remove(String name) {
+        if (!ready) {
+            return;
+        }
+        forEachCounter(name, this::decrementCounter);
+        names.decrementAndGet();
+    }
+
+    public void populate(Stream<String> registeredNames) {
+        long start = System.nanoTime();
+        registeredNames.forEach(this::add);
+        ready = true;
+        log.info("Beer name filter loaded {} names in {} ms: {} counters, {} hash functions, {} bytes, estimated false positive probability {}",
+                names.get(), (System.nanoTime() - start) / 1_000_000, counterCount, hashFunctions,
+                memoryBytes(), String.format("%.5f", estimatedFalsePositiveProbability()));
+    }
+
+    public long memoryBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    public double estimatedFalsePositiveProbability() {
+        double loadFactor = -(double) hashFunctions * Math.max(names.get(), 0) / counterCount;
+        return Math.pow(1 - Math.exp(loadFactor), hashFunctions);
+    }
+
+    private void forEachCounter(String name, IntConsumer action) {
+        long hash = hash(name);
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            action.accept(counterIndex(firstHash, secondHash, i));
+        }
+    }
+
+    private int counterIndex(int firstHash, int secondHash, int i) {
+        int combinedHash = firstHash + i * secondHash;
+        return (combinedHash & Integer.MAX_VALUE) % counterCount;
+    }
+
+    private long counterAt(int index) {
+        int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        return (counters.get(index / COUNTERS_PER_WORD) >>> shift) & COUNTER_MASK;
+    }
+
+    private void incrementCounter(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        long current;
+        do {
+            current = counters.get(word);
+            if (((current >>> shift) & COUNTER_MASK) == COUNTER_MASK) {
+                return;
+            }
+        } while (!counters.compareAndSet(word, current, current + (1L << shift)));
+    }
+
+    private void decrementCounter(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        long current;
+        do {
+            current = counters.get(word);
+            long counter = (current >>> shift) & COUNTER_MASK;
+            if (counter == 0 || counter == COUNTER_MASK) {
+                return;
+            }
+        } while (!counters.compareAndSet(word, current, current - (1L << shift)));
+    }
+
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int optimalCounterCount(int expectedInsertions, double falsePositiveProbability) {
+        double probability = Math.min(Math.max(falsePositiveProbability, Double.MIN_VALUE), 0.5);
+        double counters = -expectedInsertions * Math.log(probability) / (Math.log(2) * Math.log(2));
+        return (int) Math.min(Math.max(Math.ceil(counters), COUNTERS_PER_WORD), Integer.MAX_VALUE - COUNTERS_PER_WORD);
+    }
+
+    private static int optimalHashFunctions(int expectedInsertions, int counterCount) {
+        return Math.max(1, (int) Math.round((double) counterCount / expectedInsertions * Math.log(2)));
+    }
+}
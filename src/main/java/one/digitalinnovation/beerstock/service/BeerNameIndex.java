@@ -0,0 +1,339 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over beer names and brands, for typeahead that tolerates partial and
+ * misspelled input without a {@code LIKE '%x%'} scan.
+ * <p>
+ * Every beer is a document numbered in insertion order, and every trigram of its name and brand
+ * has a posting list of the documents holding it, kept sorted by appending. A query counts, for
+ * each document, how many of its own trigrams it shares by walking only their posting lists,
+ * then ranks the documents by trigram similarity: shared over the union of both trigram sets.
+ * Words are padded like pg_trgm, two spaces before and one after, except the last query word,
+ * which is still being typed and so matches as a prefix.
+ * <p>
+ * Names and brands never change, so the index follows creations and deletions only. Like
+ * {@link BeerNameFilter}, it only sees writes made through this instance. A deletion leaves
+ * its document number empty; once most numbers are, the live documents are renumbered in
+ * order, so the per-query counters stay sized to the beers actually indexed.
+ */
+@Slf4j
+@Component
+public class BeerNameIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_REMOVED_TO_COMPACT = 64;
+
+    private final BeerStockProperties.Typeahead properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Posting> postings = new HashMap<>();
+    // indexed by document number, null once the beer is removed
+    private List<Document> documents = new ArrayList<>();
+    private final Map<Long, Integer> documentsById = new HashMap<>();
+    private final Set<Long> removedWhileLoading = new HashSet<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final Timer queries;
+    private int removedDocuments;
+    private boolean ready;
+
+    public BeerNameIndex(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getTypeahead();
+        this.queries = Timer.builder("beerstock.typeahead.queries")
+                .description("Typeahead lookups answered from the trigram index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("beerstock.typeahead.beers", this, BeerNameIndex::size)
+                .description("Beers in the typeahead trigram index")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.typeahead.trigrams", this, BeerNameIndex::trigrams)
+                .description("Distinct trigrams in the typeahead index, one posting list each")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChange(BeerChangeEvent event) {
+        BeerDTO beer = event.getBeer();
+        if (event.getType() == BeerChangeType.CREATED) {
+            add(beer.getId(), beer.getName(), beer.getBrand());
+        } else if (event.getType() == BeerChangeType.DELETED) {
+            remove(beer.getId());
+        }
+    }
+
+    /**
+     * Indexes the beers registered before startup, given as rows of id, name and brand. Beers
+     * created meanwhile are already in, and beers removed meanwhile stay out even if the load
+     * still reads them.
+     */
+    public void populate(Stream<Object[]> registeredBeers) {
+        long start = System.nanoTime();
+        registeredBeers.forEach(row -> add((Long) row[0], (String) row[1], (String) row[2]));
+        lock.writeLock().lock();
+        try {
+            ready = true;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Typeahead index loaded {} beers and {} trigrams in {} ms", size(), trigrams(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void add(Long id, String name, String brand) {
+        Set<String> trigrams = trigramsOf(name + " " + brand, false);
+        lock.writeLock().lock();
+        try {
+            if (documentsById.containsKey(id) || removedWhileLoading.contains(id)) {
+                return;
+            }
+            int document = documents.size();
+            documents.add(new Document(id, name, brand, trigrams.size()));
+            documentsById.put(id, document);
+            trigrams.forEach(trigram -> postings.computeIfAbsent(trigram, key -> new Posting()).add(document));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                removedWhileLoading.add(id);
+            }
+            Integer document = documentsById.remove(id);
+            if (document == null) {
+                return;
+            }
+            Document removed = documents.set(document, null);
+            trigramsOf(removed.name + " " + removed.brand, false).forEach(trigram -> {
+                Posting posting = postings.get(trigram);
+                if (posting.remove(document) == 0) {
+                    postings.remove(trigram);
+                }
+            });
+            if (++removedDocuments >= MIN_REMOVED_TO_COMPACT && removedDocuments * 2 > documents.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // keeps the live documents in their order, so every posting list stays sorted
+    private void compact() {
+        int[] renumbered = new int[documents.size()];
+        List<Document> live = new ArrayList<>(documentsById.size());
+        for (int document = 0; document < documents.size(); document++) {
+            Document kept = documents.get(document);
+            if (kept != null) {
+                renumbered[document] = live.size();
+                documentsById.put(kept.id, live.size());
+                live.add(kept);
+            }
+        }
+        postings.values().forEach(posting -> posting.renumber(renumbered));
+        log.debug("Typeahead index renumbered {} beers after {} removals", live.size(), removedDocuments);
+        documents = live;
+        removedDocuments = 0;
+    }
+
+    /**
+     * Returns up to {@code limit} beers whose name and brand are most similar to {@code query},
+     * most similar first, leaving out those below {@code beerstock.typeahead.min-similarity}.
+     */
+    public List<BeerTypeaheadDTO> search(String query, int limit) {
+        return queries.record(() -> lookup(query, Math.min(Math.max(limit, 1), properties.getMaxResults())));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // document numbers in use, removed ones included until the next renumbering
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int trigrams() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<BeerTypeaheadDTO> lookup(String query, int limit) {
+        Set<String> queryTrigrams = trigramsOf(query, true);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+        // least similar on top, so the heap drops it once it holds more than the limit
+        PriorityQueue<BeerTypeaheadDTO> best = new PriorityQueue<>(Comparator.comparing(BeerTypeaheadDTO::getSimilarity)
+                .thenComparing(BeerTypeaheadDTO::getName, Comparator.reverseOrder()));
+        lock.readLock().lock();
+        try {
+            Scratch counts = scratch.get().reset(documents.size());
+            for (String trigram : queryTrigrams) {
+                Posting posting = postings.get(trigram);
+                if (posting != null) {
+                    for (int i = 0; i < posting.size; i++) {
+                        counts.increment(posting.documents[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < counts.touchedCount; i++) {
+                int document = counts.touched[i];
+                int shared = counts.shared[document];
+                counts.shared[document] = 0;
+                Document candidate = documents.get(document);
+                double similarity = (double) shared / (queryTrigrams.size() + candidate.trigrams - shared);
+                if (similarity >= properties.getMinSimilarity()) {
+                    best.offer(new BeerTypeaheadDTO(candidate.id, candidate.name, candidate.brand, similarity));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        BeerTypeaheadDTO[] ranked = new BeerTypeaheadDTO[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    // lower case without accents, so "Brahma" and "bráhma" share every trigram
+    static Set<String> trigramsOf(String text, boolean lastWordIsPrefix) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        String[] words = SEPARATORS.split(normalized.trim());
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int w = 0; w < words.length; w++) {
+            if (words[w].isEmpty()) {
+                continue;
+            }
+            String padded = "  " + words[w] + (lastWordIsPrefix && w == words.length - 1 ? "" : " ");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static final class Document {
+
+        private final Long id;
+        private final String name;
+        private final String brand;
+        private final int trigrams;
+
+        private Document(Long id, String name, String brand, int trigrams) {
+            this.id = id;
+            this.name = name;
+            this.brand = brand;
+            this.trigrams = trigrams;
+        }
+    }
+
+    // documents in ascending order, since they are numbered as they are added
+    private static final class Posting {
+
+        private int[] documents = new int[4];
+        private int size;
+
+        private void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        private int remove(int document) {
+            int index = Arrays.binarySearch(documents, 0, size, document);
+            if (index >= 0) {
+                System.arraycopy(documents, index + 1, documents, index, size - index - 1);
+                size--;
+            }
+            return size;
+        }
+
+        private void renumber(int[] renumbered) {
+            for (int i = 0; i < size; i++) {
+                documents[i] = renumbered[documents[i]];
+            }
+            if (size * 4 < documents.length) {
+                documents = Arrays.copyOf(documents, Math.max(size * 2, 4));
+            }
+        }
+    }
+
+    // per-thread shared-trigram counters, cleared document by document as they are read
+    private static final class Scratch {
+
+        private int[] shared = new int[0];
+        private int[] touched = new int[16];
+        private int touchedCount;
+
+        private Scratch reset(int documents) {
+            if (shared.length < documents) {
+                shared = new int[Math.max(documents, shared.length * 2)];
+            } else if (shared.length > 4 * Math.max(documents, 16)) {
+                // the index was renumbered down since this thread last searched it
+                shared = new int[documents];
+            }
+            touchedCount = 0;
+            return this;
+        }
+
+        private void increment(int document) {
+            if (shared[document]++ == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = document;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.CacheConfig;
+import one.digitalinnovation.beerstock.entity.BeerReservation;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerReservationRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Releases reservations whose hold ran out. Every held reservation sits in a {@link DelayQueue}
+ * ordered by expiry, so a single thread sleeps until the next one is due and then drains every
+ * reservation already due, up to {@code release-batch-size}, and releases them in one
+ * transaction with one UPDATE per beer. The table is only read once, at startup, to re-arm
+ * the holds left by a previous run.
+ * <p>
+ * Confirm and cancel never remove their deadline from the queue; the release skips any
+ * reservation that is no longer held.
+ */
+@Slf4j
+@Component
+public class BeerReservationExpiry implements SmartLifecycle {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final BeerReservationRepository beerReservationRepository;
+    private final BeerRepository beerRepository;
+    private final BeerChangeSequence beerChangeSequence;
+    private final CacheManager cacheManager;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final WriteBehindStockBuffer writeBehindStockBuffer;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerStockProperties.Reservations properties;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private final Counter expiredReservations;
+
+    private Thread releaser;
+    private volatile boolean running;
+
+    public BeerReservationExpiry(BeerReservationRepository beerReservationRepository, BeerRepository beerRepository,
+                                 BeerChangeSequence beerChangeSequence,
+                                 CacheManager cacheManager, BeerCatalogVersion beerCatalogVersion,
+                                 WriteBehindStockBuffer writeBehindStockBuffer, ApplicationEventPublisher applicationEventPublisher,
+                                 PlatformTransactionManager transactionManager, BeerStockProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.beerReservationRepository = beerReservationRepository;
+        this.beerRepository = beerRepository;
+        this.beerChangeSequence = beerChangeSequence;
+        this.cacheManager = cacheManager;
+        this.beerCatalogVersion = beerCatalogVersion;
+        this.writeBehindStockBuffer = writeBehindStockBuffer;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties.getReservations();
+        Gauge.builder("beerstock.reservations.scheduled", deadlines, DelayQueue::size)
+                .description("Reservation deadlines waiting to be released")
+                .register(meterRegistry);
+        this.expiredReservations = Counter.builder("beerstock.reservations.expired")
+                .description("Reservations released because their hold ran out")
+                .register(meterRegistry);
+    }
+
+    // armed only once the hold commits, so the release never looks for a reservation it cannot see yet
+    public void schedule(Long reservationId, Instant expiresAt) {
+        Deadline deadline = new Deadline(reservationId, expiresAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    deadlines.add(deadline);
+                }
+            });
+        } else {
+            deadlines.add(deadline);
+        }
+    }
+
+    public int release(List<Long> reservationIds) {
+        Integer released = transactionTemplate.execute(status -> {
+            List<BeerReservation> expired = beerReservationRepository.lockExpired(reservationIds, ReservationStatus.HELD, Instant.now());
+            if (expired.isEmpty()) {
+                return 0;
+            }
+            beerReservationRepository.updateStatus(expired.stream().map(BeerReservation::getId).collect(Collectors.toList()), ReservationStatus.EXPIRED);
+            // beers in id order, like every other multi-beer update
+            Map<Long, Integer> quantitiesByBeer = expired.stream()
+                    .collect(Collectors.groupingBy(BeerReservation::getBeerId, TreeMap::new, Collectors.summingInt(BeerReservation::getQuantity)));
+            // lifted once this transaction completes, like any exclusion closed inside one
+            writeBehindStockBuffer.exclude(quantitiesByBeer.keySet()).close();
+            quantitiesByBeer.forEach((beerId, quantity) -> beerChangeSequence.stamp(changeSequence ->
+                    beerRepository.releaseQuantity(beerId, quantity, changeSequence)));
+            Optional<Cache> beersByNameCache = Optional.ofNullable(cacheManager.getCache(CacheConfig.BEERS_BY_NAME_CACHE))
+                    .map(TransactionAwareCacheDecorator::new);
+            beerRepository.findAllById(quantitiesByBeer.keySet()).forEach(beer -> {
+                beersByNameCache.ifPresent(cache -> cache.evict(beer.getName()));
+                applicationEventPublisher.publishEvent(new BeerChangeEvent(BeerChangeType.STOCK_CHANGED, beerMapper.toDTO(beer)));
+            });
+            beerCatalogVersion.changed();
+            return expired.size();
+        });
+        expiredReservations.increment(released);
+        return released;
+    }
+
+    private void releaseDue() {
+        while (running) {
+            List<Deadline> due = new ArrayList<>();
+            try {
+                due.add(deadlines.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            deadlines.drainTo(due, properties.getReleaseBatchSize() - 1);
+            try {
+                release(due.stream().map(Deadline::getReservationId).collect(Collectors.toList()));
+            } catch (RuntimeException e) {
+                log.error("Failed to release {} expired reservations, retrying in {}", due.size(), RETRY_DELAY, e);
+                Instant retryAt = Instant.now().plus(RETRY_DELAY);
+                due.forEach(deadline -> deadlines.add(new Deadline(deadline.getReservationId(), retryAt)));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        beerReservationRepository.findByStatus(ReservationStatus.HELD)
+                .forEach(reservation -> deadlines.add(new Deadline(reservation.getId(), reservation.getExpiresAt())));
+        running = true;
+        releaser = new Thread(this::releaseDue, "beer-reservation-expiry");
+        releaser.setDaemon(true);
+        releaser.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        releaser.interrupt();
+        try {
+            releaser.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Deadline implements Delayed {
+
+        private final Long reservationId;
+        private final Instant expiresAt;
+
+        private Deadline(Long reservationId, Instant expiresAt) {
+            this.reservationId = reservationId;
+            this.expiresAt = expiresAt;
+        }
+
+        private Long getReservationId() {
+            return reservationId;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), expiresAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Deadline) other).expiresAt);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.CacheConfig;
+import one.digitalinnovation.beerstock.dto.BeerReservationDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerReservation;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerReservationNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationSettledException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.mapper.BeerReservationMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerReservationService {
+
+    private final BeerRepository beerRepository;
+    private final BeerReservationRepository beerReservationRepository;
+    private final BeerReservationExpiry beerReservationExpiry;
+    private final BeerChangeSequence beerChangeSequence;
+    private final BeerStockStats beerStockStats;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final WriteBehindStockBuffer writeBehindStockBuffer;
+    private final CacheManager cacheManager;
+    private final BeerStockProperties beerStockProperties;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final BeerReservationMapper beerReservationMapper = BeerReservationMapper.INSTANCE;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Transactional(rollbackFor = {BeerNotFoundException.class, BeerStockExceededException.class, BeerReservationConflictException.class})
+    public BeerReservationDTO reserve(Long beerId, int quantity) throws BeerNotFoundException, BeerStockExceededException, BeerReservationConflictException {
+        // buffered sales are written first, so the hold is checked against every sale already acknowledged
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(beerId))) {
+            if (beerChangeSequence.stamp(changeSequence -> beerRepository.holdQuantity(beerId, quantity, changeSequence)) == 0) {
+                Beer beer = beerRepository.findById(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+                if (beer.getStockShards() > 0) {
+                    throw new BeerReservationConflictException(beerId);
+                }
+                throw new BeerStockExceededException(beerId, quantity);
+            }
+            BeerReservation reservation = beerReservationRepository.save(BeerReservation.builder()
+                    .beerId(beerId)
+                    .quantity(quantity)
+                    .status(ReservationStatus.HELD)
+                    .expiresAt(Instant.now().plus(beerStockProperties.getReservations().getTtl()))
+                    .build());
+            beerReservationExpiry.schedule(reservation.getId(), reservation.getExpiresAt());
+            beerChanged(beerId);
+            return beerReservationMapper.toDTO(reservation);
+        }
+    }
+
+    @Transactional(rollbackFor = {BeerReservationNotFoundException.class, BeerReservationSettledException.class})
+    public BeerReservationDTO confirm(Long beerId, Long reservationId) throws BeerReservationNotFoundException, BeerReservationSettledException {
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(beerId))) {
+            BeerReservation reservation = settle(beerId, reservationId, ReservationStatus.CONFIRMED);
+            if (beerChangeSequence.stamp(changeSequence -> beerRepository.takeReservedQuantity(beerId, reservation.getQuantity(), changeSequence)) == 0) {
+                throw reservedStockMismatch(beerId, reservation);
+            }
+            beerStockStats.stockChanged(beerId, -reservation.getQuantity());
+            beerChanged(beerId);
+            return beerReservationMapper.toDTO(reservation);
+        }
+    }
+
+    @Transactional(rollbackFor = {BeerReservationNotFoundException.class, BeerReservationSettledException.class})
+    public BeerReservationDTO cancel(Long beerId, Long reservationId) throws BeerReservationNotFoundException, BeerReservationSettledException {
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(beerId))) {
+            BeerReservation reservation = settle(beerId, reservationId, ReservationStatus.CANCELLED);
+            if (beerChangeSequence.stamp(changeSequence -> beerRepository.releaseQuantity(beerId, reservation.getQuantity(), changeSequence)) == 0) {
+                throw reservedStockMismatch(beerId, reservation);
+            }
+            beerChanged(beerId);
+            return beerReservationMapper.toDTO(reservation);
+        }
+    }
+
+    // the conditional status update decides the race against the other settle call and the expiry
+    private BeerReservation settle(Long beerId, Long reservationId, ReservationStatus status) throws BeerReservationNotFoundException, BeerReservationSettledException {
+        BeerReservation reservation = verifyIfExists(beerId, reservationId);
+        if (beerReservationRepository.settle(reservationId, ReservationStatus.HELD, status, Instant.now()) == 0) {
+            ReservationStatus currentStatus = verifyIfExists(beerId, reservationId).getStatus();
+            // past its deadline but not released yet
+            throw new BeerReservationSettledException(reservationId, currentStatus == ReservationStatus.HELD ? ReservationStatus.EXPIRED : currentStatus);
+        }
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    // the beer no longer holds what the reservation says it does, so the settle is rolled back rather than driving it negative
+    private IllegalStateException reservedStockMismatch(Long beerId, BeerReservation reservation) {
+        return new IllegalStateException(String.format("Beer with ID %s does not hold the %s units of reservation %s",
+                beerId, reservation.getQuantity(), reservation.getId()));
+    }
+
+    private BeerReservation verifyIfExists(Long beerId, Long reservationId) throws BeerReservationNotFoundException {
+        return beerReservationRepository.findByIdAndBeerId(reservationId, beerId)
+                .orElseThrow(() -> new BeerReservationNotFoundException(beerId, reservationId));
+    }
+
+    private void beerChanged(Long beerId) {
+        beerRepository.findById(beerId).ifPresent(beer -> {
+            Optional.ofNullable(cacheManager.getCache(CacheConfig.BEERS_BY_NAME_CACHE))
+                    .map(TransactionAwareCacheDecorator::new)
+                    .ifPresent(cache -> cache.evict(beer.getName()));
+            applicationEventPublisher.publishEvent(new BeerChangeEvent(BeerChangeType.STOCK_CHANGED, beerMapper.toDTO(beer)));
+        });
+        beerCatalogVersion.changed();
+    }
+}
@@ -2,90 +2,509 @@ package one.digitalinnovation.beerstock.service;
 
 import io.swagger.models.auth.In;
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.CacheConfig;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
+import one.digitalinnovation.beerstock.dto.BeerVersionDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentResultDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerTombstone;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerPageOutOfRangeException;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerReservationRepository;
+import one.digitalinnovation.beerstock.repository.BeerSpecifications;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final BeerRepository beerRepository;
+    private final CacheManager cacheManager;
+    private final BeerLookupCoalescer beerLookupCoalescer;
+    private final BeerNameFilter beerNameFilter;
+    private final BeerNameIndex beerNameIndex;
+    private final StockMutationRetrier stockMutationRetrier;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final WriteBehindStockBuffer writeBehindStockBuffer;
+    private final StockGroupCommitter stockGroupCommitter;
+    private final BeerStockShards beerStockShards;
+    private final BeerReservationRepository beerReservationRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final BeerChangeSequence beerChangeSequence;
+    private final BeerTombstoneRepository beerTombstoneRepository;
+    private final BeerStockStats beerStockStats;
+    private final BeerStockAlerts beerStockAlerts;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
+    @Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(beerDTO.getName());
         Beer beer = beerMapper.toModel(beerDTO);
-        Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        // the id always comes from the pooled sequence so save persists instead of merging
+        beer.setId(null);
+        // registered before the insert so a committed name is never reported as missing
+        beerNameFilter.add(beer.getName());
+        try {
+            Beer savedBeer = beerChangeSequence.stamp(changeSequence -> {
+                beer.setChangeSequence(changeSequence);
+                return beerRepository.save(beer);
+            });
+            beerStockStats.beerAdded(savedBeer);
+            return changed(BeerChangeType.CREATED, beerMapper.toDTO(savedBeer));
+        } catch (RuntimeException e) {
+            beerNameFilter.remove(beer.getName());
+            throw e;
+        }
     }
 
+    @Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
+    public List<BeerDTO> createBeers(List<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException {
+        verifyIfAnyIsAlreadyRegistered(beerDTOs);
+        List<Beer> beers = beerDTOs.stream()
+                .map(beerMapper::toModel)
+                .collect(Collectors.toList());
+        // ids always come from the pooled sequence so saveAll persists instead of merging
+        beers.forEach(beer -> beer.setId(null));
+        beers.forEach(beer -> beerNameFilter.add(beer.getName()));
+        try {
+            // a sequence per beer, so a delta page can stop within the batch
+            List<Beer> savedBeers = beerChangeSequence.stampEach(beers.size(), firstChangeSequence -> {
+                IntStream.range(0, beers.size()).forEach(i -> beers.get(i).setChangeSequence(firstChangeSequence + i));
+                return beerRepository.saveAll(beers);
+            });
+            beerStockStats.beersAdded(savedBeers);
+            List<BeerDTO> createdBeers = savedBeers.stream()
+                    .map(beerMapper::toDTO)
+                    .map(beerDTO -> changed(BeerChangeType.CREATED, beerDTO))
+                    .collect(Collectors.toList());
+            return createdBeers;
+        } catch (RuntimeException e) {
+            beers.forEach(beer -> beerNameFilter.remove(beer.getName()));
+            throw e;
+        }
+    }
+
+    @Cacheable(cacheNames = CacheConfig.BEERS_BY_NAME_CACHE, key = "#name")
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
+        if (!beerNameFilter.mightContain(name)) {
+            throw new BeerNotFoundException(name);
+        }
+        return beerLookupCoalescer.lookup(name, this::loadByName)
                 .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
     }
 
-    public List<BeerDTO> listAll() {
-        return beerRepository.findAll()
-                .stream()
-                .map(beerMapper::toDTO)
+    /**
+     * Finds many beers by name at once, answering in request order and flagging the names not
+     * found. Names in the cache are answered from it, names the name filter rules out are not
+     * queried, and the rest are read with one {@code IN} query per chunk.
+     */
+    public List<BeerLookupDTO> lookup(List<String> names) {
+        Map<String, BeerDTO> foundBeers = new HashMap<>();
+        List<String> namesToQuery = new ArrayList<>();
+        Optional<Cache> cache = beersByNameCache();
+        for (String name : new HashSet<>(names)) {
+            BeerDTO cachedBeer = cache.map(beersByName -> beersByName.get(name, BeerDTO.class)).orElse(null);
+            if (cachedBeer != null) {
+                foundBeers.put(name, cachedBeer);
+            } else if (beerNameFilter.mightContain(name)) {
+                namesToQuery.add(name);
+            }
+        }
+        for (int from = 0; from < namesToQuery.size(); from += BeerRepository.IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = namesToQuery.subList(from, Math.min(from + BeerRepository.IN_CLAUSE_CHUNK_SIZE, namesToQuery.size()));
+            beerRepository.findDTOsByNameIn(chunk).forEach(beerDTO -> {
+                foundBeers.put(beerDTO.getName(), beerDTO);
+                cache.ifPresent(beersByName -> beersByName.put(beerDTO.getName(), beerDTO));
+            });
+        }
+        return names.stream()
+                .map(name -> new BeerLookupDTO(name, foundBeers.containsKey(name), foundBeers.get(name)))
                 .collect(Collectors.toList());
     }
 
+    public Optional<BeerVersionDTO> findVersionByName(String name) {
+        if (!beerNameFilter.mightContain(name)) {
+            return Optional.empty();
+        }
+        return beerRepository.findVersionByName(name);
+    }
+
+    public String catalogVersion() {
+        return beerCatalogVersion.current();
+    }
+
+    public List<BeerDTO> listAll() {
+        return beerRepository.findAllDTOs();
+    }
+
+    // a null fields reads every property, otherwise only the fields given and the id
+    public BeerPageDTO listPage(Long after, int limit, Set<BeerField> fields) {
+        return keysetPage(BeerSpecifications.idAfter(after), limit, fields);
+    }
+
+    public BeerPageDTO search(BeerSearchDTO search, Long after, int limit, Set<BeerField> fields) {
+        return keysetPage(BeerSpecifications.matching(search, after), limit, fields);
+    }
+
+    public BeerPageDTO listOffsetPage(int page, int limit, Set<BeerField> fields) throws BeerPageOutOfRangeException {
+        int pageNumber = Math.max(page, 0);
+        int pageSize = toPageSize(limit);
+        long offset = (long) pageNumber * pageSize;
+        // the database takes the first row as an int, and so does the next page number
+        if (offset + pageSize + 1 > Integer.MAX_VALUE) {
+            throw new BeerPageOutOfRangeException(page, pageSize);
+        }
+        List<BeerDTO> beers = beerRepository.findDTOs(null, fields, Sort.by("id"), offset, pageSize + 1);
+        Integer nextPage = beers.size() > pageSize ? pageNumber + 1 : null;
+        return new BeerPageDTO(beers.subList(0, Math.min(beers.size(), pageSize)), null, nextPage);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<BeerDTO> consumer) {
+        // DTOs are never managed, so the persistence context does not grow with the catalog
+        try (Stream<BeerDTO> beers = beerRepository.streamAllDTOsOrderedById()) {
+            beers.forEach(consumer);
+        }
+    }
+
+    @Transactional(rollbackFor = BeerNotFoundException.class)
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
-        beerRepository.deleteById(id);
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(id))) {
+            // locked so the stock taken off the totals is the stock the beer had when it went
+            Beer beerToDelete = beerRepository.lockById(id).orElseThrow(() -> new BeerNotFoundException(id));
+            beerRepository.deleteById(id);
+            beerStockStats.beerRemoved(beerToDelete, beerMapper.toDTO(beerToDelete).getQuantity());
+            beerChangeSequence.stamp(changeSequence -> beerTombstoneRepository.save(BeerTombstone.builder()
+                    .beerId(id)
+                    .name(beerToDelete.getName())
+                    .changeSequence(changeSequence)
+                    .deletedAt(Instant.now())
+                    .build()));
+            beerStockShards.forget(id);
+            beerStockAlerts.deleteStoredThreshold(id);
+            beerReservationRepository.deleteByBeerId(id);
+            changed(BeerChangeType.DELETED, beerMapper.toDTO(beerToDelete));
+        }
+    }
+
+    // evictions requested inside a transaction only happen after it commits
+    private Optional<Cache> beersByNameCache() {
+        return Optional.ofNullable(cacheManager.getCache(CacheConfig.BEERS_BY_NAME_CACHE))
+                .map(TransactionAwareCacheDecorator::new);
+    }
+
+    // the specification carries the id cursor, so the page is read in id order
+    private BeerPageDTO keysetPage(Specification<Beer> specification, int limit, Set<BeerField> fields) {
+        int pageSize = toPageSize(limit);
+        // one extra row tells whether there is a next page without a count query
+        List<BeerDTO> beers = beerRepository.findDTOs(specification, fields, Sort.by("id"), 0, pageSize + 1);
+        List<BeerDTO> beerDTOs = beers.subList(0, Math.min(beers.size(), pageSize));
+        Long nextCursor = beers.size() > pageSize ? beerDTOs.get(pageSize - 1).getId() : null;
+        return new BeerPageDTO(beerDTOs, nextCursor, null);
+    }
+
+    private int toPageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    private Optional<BeerDTO> loadByName(String name) {
+        return beerRepository.findDTOByName(name);
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBeerNameFilter() {
+        try (Stream<String> names = beerRepository.streamAllNames()) {
+            beerNameFilter.populate(names);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBeerNameIndex() {
+        try (Stream<Object[]> beers = beerRepository.streamAllNamesAndBrands()) {
+            beerNameIndex.populate(beers);
+        }
+    }
+
+    public List<BeerTypeaheadDTO> typeahead(String query, int limit) {
+        return beerNameIndex.search(query, limit);
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
+        if (!beerNameFilter.mightContain(name)) {
+            return;
+        }
         Optional<Beer> optSavedBeer = beerRepository.findByName(name);
         if (optSavedBeer.isPresent()) {
             throw new BeerAlreadyRegisteredException(name);
         }
     }
 
+    private void verifyIfAnyIsAlreadyRegistered(List<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException {
+        Set<String> names = new HashSet<>();
+        for (BeerDTO beerDTO : beerDTOs) {
+            if (!names.add(beerDTO.getName())) {
+                throw new BeerAlreadyRegisteredException(beerDTO.getName());
+            }
+        }
+        Set<String> possiblyRegisteredNames = names.stream()
+                .filter(beerNameFilter::mightContain)
+                .collect(Collectors.toSet());
+        if (possiblyRegisteredNames.isEmpty()) {
+            return;
+        }
+        List<String> registeredNames = beerRepository.findNamesByNameIn(possiblyRegisteredNames);
+        if (!registeredNames.isEmpty()) {
+            throw new BeerAlreadyRegisteredException(registeredNames.get(0));
+        }
+    }
+
     private Beer verifyIfExists(Long id) throws BeerNotFoundException {
         return beerRepository.findById(id)
                 .orElseThrow(() -> new BeerNotFoundException(id));
     }
 
 
-    public BeerDTO increment(Long id, int quatityToIncrement) throws BeerStockExceededException, BeerNotFoundException {
-        Beer beerToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = beerToIncrementStock.getQuantity() + quatityToIncrement;
+    public BeerDTO increment(Long id, int quatityToIncrement) throws BeerStockExceededException, BeerNotFoundException, BeerStockConflictException {
+        if (beerStockShards.isSharded(id)) {
+            return shardedStockUpdate(id, quatityToIncrement);
+        }
+        return unshardedStockUpdate(id, quatityToIncrement, changeSequence ->
+                beerRepository.incrementQuantity(id, quatityToIncrement, changeSequence));
+    }
 
-        if (quantityAfterIncrement > beerToIncrementStock.getMax()) {
-            throw new BeerStockExceededException(id, quatityToIncrement);
+    public BeerDTO increment(Long id, int quatityToIncrement, long expectedVersion) throws BeerStockExceededException, BeerNotFoundException, BeerStockConflictException, BeerVersionMismatchException {
+        if (beerStockShards.isSharded(id)) {
+            return shardedStockUpdate(id, quatityToIncrement, expectedVersion);
+        }
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(id))) {
+            int updatedRows = updateStock(id, quatityToIncrement, changeSequence ->
+                    beerRepository.incrementQuantityAtVersion(id, quatityToIncrement, expectedVersion, changeSequence));
+            verifyIfStockWasUpdated(updatedRows, id, quatityToIncrement, expectedVersion);
+            return stockUpdated(id);
         }
+    }
 
-        beerToIncrementStock.setQuantity(quantityAfterIncrement);
-        return beerMapper.toDTO(beerRepository.save(beerToIncrementStock));
+    public BeerDTO decrement(Long id, int quatityToDecrement) throws BeerStockExceededException, BeerNotFoundException, BeerStockConflictException {
+        if (beerStockShards.isSharded(id)) {
+            return shardedStockUpdate(id, -quatityToDecrement);
+        }
+        return unshardedStockUpdate(id, -quatityToDecrement, changeSequence ->
+                beerRepository.decrementQuantity(id, quatityToDecrement, changeSequence));
     }
 
-    public BeerDTO decrement(Long id, int quatityToDecrement) throws BeerStockExceededException, BeerNotFoundException {
-        Beer beerToDecrementStock = verifyIfExists(id);
-        int quantityAfterDecrement = beerToDecrementStock.getQuantity() - quatityToDecrement;
+    public BeerDTO decrement(Long id, int quatityToDecrement, long expectedVersion) throws BeerStockExceededException, BeerNotFoundException, BeerStockConflictException, BeerVersionMismatchException {
+        if (beerStockShards.isSharded(id)) {
+            return shardedStockUpdate(id, -quatityToDecrement, expectedVersion);
+        }
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(id))) {
+            int updatedRows = updateStock(id, -quatityToDecrement, changeSequence ->
+                    beerRepository.decrementQuantityAtVersion(id, quatityToDecrement, expectedVersion, changeSequence));
+            verifyIfStockWasUpdated(updatedRows, id, quatityToDecrement, expectedVersion);
+            return stockUpdated(id);
+        }
+    }
 
-        if (quantityAfterDecrement < 0) {
-            throw new BeerStockExceededException(id, quatityToDecrement);
+    public BeerDTO reshardStock(Long id, int stockShards) throws BeerNotFoundException, BeerReservationConflictException {
+        verifyIfExists(id);
+        // buffered deltas still target the quantity column, so they are written before the stock moves
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(id))) {
+            if (!beerStockShards.reshard(id, stockShards)) {
+                throw new BeerReservationConflictException(id);
+            }
+            return stockUpdated(id);
         }
+    }
+
+    // the write-behind buffer takes the change unless it is off or the beer is being written directly
+    private BeerDTO unshardedStockUpdate(Long id, int delta, LongFunction<Integer> update) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        Optional<BeerDTO> buffered = writeBehindStockBuffer.adjust(id, delta);
+        if (buffered.isPresent()) {
+            return changed(BeerChangeType.STOCK_CHANGED, buffered.get());
+        }
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(List.of(id))) {
+            if (stockGroupCommitter.isEnabled()) {
+                return groupCommittedStockUpdate(id, delta);
+            }
+            int updatedRows = updateStock(id, delta, update);
+            verifyIfStockWasUpdated(updatedRows, id, Math.abs(delta));
+            return stockUpdated(id);
+        }
+    }
+
+    // the stock change, its change sequence and the stock totals it moves commit together
+    private int updateStock(Long id, int delta, LongFunction<Integer> update) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        return stockMutationRetrier.execute(id, () -> beerStockStats.apply(id, delta, () -> beerChangeSequence.stamp(update)));
+    }
+
+    private BeerDTO shardedStockUpdate(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException {
+        boolean updated = beerStockShards.adjust(id, delta);
+        verifyIfStockWasUpdated(updated ? 1 : 0, id, Math.abs(delta));
+        return stockUpdated(id);
+    }
+
+    private BeerDTO shardedStockUpdate(Long id, int delta, long expectedVersion) throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+        boolean updated = beerStockShards.adjust(id, delta, expectedVersion);
+        verifyIfStockWasUpdated(updated ? 1 : 0, id, Math.abs(delta), expectedVersion);
+        return stockUpdated(id);
+    }
+
+    private BeerDTO groupCommittedStockUpdate(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        return changed(BeerChangeType.STOCK_CHANGED, stockGroupCommitter.submit(id, delta));
+    }
 
-        beerToDecrementStock.setQuantity(quantityAfterDecrement);
-        return beerMapper.toDTO(beerRepository.save(beerToDecrementStock));
+    private BeerDTO stockUpdated(Long id) throws BeerNotFoundException {
+        return changed(BeerChangeType.STOCK_CHANGED, beerMapper.toDTO(verifyIfExists(id)));
+    }
+
+    // listeners of the change event see it only once the surrounding transaction, if any, commits;
+    // the cached lookup is evicted rather than replaced, so a snapshot read before commit is never cached
+    private BeerDTO changed(BeerChangeType type, BeerDTO beerDTO) {
+        beersByNameCache().ifPresent(cache -> cache.evict(beerDTO.getName()));
+        beerCatalogVersion.changed();
+        applicationEventPublisher.publishEvent(new BeerChangeEvent(type, beerDTO));
+        return beerDTO;
+    }
+
+    private void verifyIfStockWasUpdated(int updatedRows, Long id, int quantity) throws BeerNotFoundException, BeerStockExceededException {
+        if (updatedRows == 0) {
+            if (!beerRepository.existsById(id)) {
+                throw new BeerNotFoundException(id);
+            }
+            throw new BeerStockExceededException(id, quantity);
+        }
+    }
+
+    private void verifyIfStockWasUpdated(int updatedRows, Long id, int quantity, long expectedVersion) throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+        if (updatedRows == 0) {
+            BeerVersionDTO currentVersion = beerRepository.findVersionById(id)
+                    .orElseThrow(() -> new BeerNotFoundException(id));
+            if (currentVersion.getVersion() != expectedVersion) {
+                throw new BeerVersionMismatchException(id);
+            }
+            throw new BeerStockExceededException(id, quantity);
+        }
+    }
+
+    @Transactional(rollbackFor = {BeerNotFoundException.class, BeerStockExceededException.class})
+    public List<StockAdjustmentResultDTO> adjustStock(List<StockAdjustmentDTO> adjustments, boolean partial) throws BeerNotFoundException, BeerStockExceededException {
+        // sorted by id so concurrent batches take their row locks in the same order
+        List<StockAdjustmentDTO> orderedAdjustments = adjustments.stream()
+                .sorted(Comparator.comparing(StockAdjustmentDTO::getId))
+                .collect(Collectors.toList());
+        List<Long> ids = orderedAdjustments.stream().map(StockAdjustmentDTO::getId).distinct().collect(Collectors.toList());
+        int[] updatedRows;
+        // the exclusion closes here but is only lifted once the batch transaction completes
+        try (WriteBehindStockBuffer.Exclusion ignored = writeBehindStockBuffer.exclude(ids)) {
+            updatedRows = adjustQuantities(orderedAdjustments);
+        }
+        Map<Long, Beer> adjustedBeers = beerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        List<StockAdjustmentResultDTO> results = IntStream.range(0, orderedAdjustments.size())
+                .mapToObj(i -> toAdjustmentResult(orderedAdjustments.get(i), updatedRows[i], adjustedBeers))
+                .collect(Collectors.toList());
+        if (!partial) {
+            verifyIfAllAdjustmentsWereApplied(results);
+        }
+        results.stream()
+                .filter(result -> result.getStatus() == StockAdjustmentStatus.APPLIED)
+                .map(StockAdjustmentResultDTO::getId)
+                .distinct()
+                .forEach(id -> changed(BeerChangeType.STOCK_CHANGED, beerMapper.toDTO(adjustedBeers.get(id))));
+        return results;
+    }
+
+    // unsharded beers are adjusted in one JDBC batch, sharded beers shard by shard afterwards
+    private int[] adjustQuantities(List<StockAdjustmentDTO> adjustments) {
+        int[] updatedRows = new int[adjustments.size()];
+        Map<Boolean, List<Integer>> indexesBySharding = IntStream.range(0, adjustments.size())
+                .boxed()
+                .collect(Collectors.partitioningBy(i -> beerStockShards.isSharded(adjustments.get(i).getId())));
+        List<Integer> batched = indexesBySharding.get(false);
+        if (!batched.isEmpty()) {
+            List<StockAdjustmentDTO> batchedAdjustments = batched.stream().map(adjustments::get).collect(Collectors.toList());
+            int[] batchedRows = beerStockStats.applyAll(batchedAdjustments, () ->
+                    beerChangeSequence.stampEach(batchedAdjustments.size(), changeSequence -> beerRepository.adjustQuantities(batchedAdjustments, changeSequence)));
+            IntStream.range(0, batched.size()).forEach(i -> updatedRows[batched.get(i)] = batchedRows[i]);
+        }
+        for (int i : indexesBySharding.get(true)) {
+            StockAdjustmentDTO adjustment = adjustments.get(i);
+            updatedRows[i] = beerStockShards.adjust(adjustment.getId(), adjustment.getQuantity()) ? 1 : 0;
+        }
+        return updatedRows;
+    }
+
+    private StockAdjustmentResultDTO toAdjustmentResult(StockAdjustmentDTO adjustment, int updatedRows, Map<Long, Beer> adjustedBeers) {
+        Beer adjustedBeer = adjustedBeers.get(adjustment.getId());
+        StockAdjustmentStatus status = updatedRows > 0 ? StockAdjustmentStatus.APPLIED
+                : adjustedBeer == null ? StockAdjustmentStatus.NOT_FOUND : StockAdjustmentStatus.STOCK_EXCEEDED;
+        return StockAdjustmentResultDTO.builder()
+                .id(adjustment.getId())
+                .quantity(adjustment.getQuantity())
+                .status(status)
+                .stock(adjustedBeer == null ? null : beerMapper.toDTO(adjustedBeer).getQuantity())
+                .build();
+    }
+
+    private void verifyIfAllAdjustmentsWereApplied(List<StockAdjustmentResultDTO> results) throws BeerNotFoundException, BeerStockExceededException {
+        for (StockAdjustmentResultDTO result : results) {
+            if (result.getStatus() == StockAdjustmentStatus.NOT_FOUND) {
+                throw new BeerNotFoundException(result.getId());
+            }
+            if (result.getStatus() == StockAdjustmentStatus.STOCK_EXCEEDED) {
+                throw new BeerStockExceededException(result.getId(), result.getQuantity());
+            }
+        }
     }
 }
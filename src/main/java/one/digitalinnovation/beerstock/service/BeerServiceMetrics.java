@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Times every public {@link BeerService} call, tagged by method and by the type of the beer
+ * involved when there is one, and counts the exceptions it throws by method and exception only:
+ * a failed call rarely returns the beer, so its type would mostly read as none.
+ * Runs outside the cache and transaction advice, so cache hits and commits are timed too.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BeerServiceMetrics {
+
+    static final String SERVICE_TIMER = "beerstock.service";
+    static final String SERVICE_EXCEPTIONS = "beerstock.service.exceptions";
+
+    private static final String NO_TAG_VALUE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public BeerServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * one.digitalinnovation.beerstock.service.BeerService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            stop(sample, method, beerType(result, joinPoint.getArgs()), NO_TAG_VALUE);
+            return result;
+        } catch (Throwable e) {
+            String exception = e.getClass().getSimpleName();
+            stop(sample, method, beerType(null, joinPoint.getArgs()), exception);
+            Counter.builder(SERVICE_EXCEPTIONS)
+                    .description("Exceptions thrown by BeerService operations")
+                    .tags("method", method, "exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        }
+    }
+
+    private void stop(Timer.Sample sample, String method, String type, String exception) {
+        sample.stop(Timer.builder(SERVICE_TIMER)
+                .description("Time spent in BeerService operations")
+                .tags("method", method, "type", type, "exception", exception)
+                .register(meterRegistry));
+    }
+
+    private String beerType(Object result, Object[] args) {
+        if (result instanceof BeerDTO && ((BeerDTO) result).getType() != null) {
+            return ((BeerDTO) result).getType().name();
+        }
+        return Arrays.stream(args)
+                .filter(arg -> arg instanceof BeerDTO && ((BeerDTO) arg).getType() != null)
+                .map(arg -> ((BeerDTO) arg).getType().name())
+                .findFirst()
+                .orElse(NO_TAG_VALUE);
+    }
+}
@@ -0,0 +1,171 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockAlertDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockThresholdDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockThreshold;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.enums.StockThresholdUnit;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.mapper.BeerStockThresholdMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockThresholdRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Low-stock alerts against per-beer {@link BeerStockThreshold thresholds}.
+ * <p>
+ * Thresholds are held in memory and every committed {@link BeerChangeEvent} is checked against
+ * the threshold of its own beer only, using the stock the event carries, so no change ever
+ * reads other beers. An alert is raised when the stock drops below the threshold and cleared
+ * only once it is back to threshold plus hysteresis, so stock hovering around the threshold
+ * does not flap. Events can arrive out of commit order; one older than the last seen for its
+ * beer is ignored.
+ */
+@Slf4j
+@Component
+public class BeerStockAlerts {
+
+    private final BeerRepository beerRepository;
+    private final BeerStockThresholdRepository thresholdRepository;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final BeerStockThresholdMapper thresholdMapper = BeerStockThresholdMapper.INSTANCE;
+    private final ConcurrentMap<Long, BeerStockThreshold> thresholds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AlertState> states = new ConcurrentHashMap<>();
+    private final Counter raised;
+
+    public BeerStockAlerts(BeerRepository beerRepository, BeerStockThresholdRepository thresholdRepository,
+                           MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.thresholdRepository = thresholdRepository;
+        Gauge.builder("beerstock.stock.alerts.active", this, alerts -> alerts.activeAlerts().size())
+                .description("Beers currently below their low-stock threshold")
+                .register(meterRegistry);
+        this.raised = Counter.builder("beerstock.stock.alerts.raised")
+                .description("Low-stock alerts raised by beers crossing below their threshold")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadThresholds() {
+        thresholdRepository.findAll().forEach(threshold -> thresholds.put(threshold.getBeerId(), threshold));
+        beerRepository.findAllById(thresholds.keySet()).forEach(beer -> evaluate(beerMapper.toDTO(beer)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChange(BeerChangeEvent event) {
+        if (event.getType() == BeerChangeType.DELETED) {
+            forget(event.getBeer().getId());
+        } else {
+            evaluate(event.getBeer());
+        }
+    }
+
+    /**
+     * Sets the threshold of a beer, replacing any previous one, and checks the current stock against it.
+     */
+    public BeerStockThresholdDTO setThreshold(Long id, BeerStockThresholdDTO beerStockThresholdDTO) throws BeerNotFoundException {
+        Beer beer = beerRepository.findById(id).orElseThrow(() -> new BeerNotFoundException(id));
+        BeerStockThreshold threshold = thresholdMapper.toModel(beerStockThresholdDTO);
+        threshold.setBeerId(id);
+        thresholds.put(id, thresholdRepository.save(threshold));
+        evaluate(beerMapper.toDTO(beer));
+        return thresholdMapper.toDTO(threshold);
+    }
+
+    public void removeThreshold(Long id) {
+        thresholdRepository.deleteByBeerId(id);
+        forget(id);
+    }
+
+    // joins the transaction of a beer deletion; the threshold in memory goes once its DELETED event commits
+    public void deleteStoredThreshold(Long id) {
+        thresholdRepository.deleteByBeerId(id);
+    }
+
+    public List<BeerStockAlertDTO> activeAlerts() {
+        return states.values().stream()
+                .map(AlertState::getAlert)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(BeerStockAlertDTO::getRaisedAt))
+                .collect(Collectors.toList());
+    }
+
+    private void forget(Long id) {
+        thresholds.remove(id);
+        states.remove(id);
+    }
+
+    private void evaluate(BeerDTO beer) {
+        BeerStockThreshold threshold = thresholds.get(beer.getId());
+        if (threshold == null) {
+            return;
+        }
+        states.compute(beer.getId(), (id, state) -> {
+            if (state != null && beer.getVersion() != null && beer.getVersion() < state.getVersion()) {
+                return state;
+            }
+            long version = beer.getVersion() != null ? beer.getVersion() : state != null ? state.getVersion() : 0;
+            BeerStockAlertDTO alert = state == null ? null : state.getAlert();
+            if (alert == null && below(beer, threshold.getUnit(), threshold.getThreshold())) {
+                raised.increment();
+                log.warn("Beer {} ({}) dropped below its stock threshold of {} {} with {} left",
+                        beer.getName(), beer.getId(), threshold.getThreshold(), threshold.getUnit(), beer.getQuantity());
+                alert = BeerStockAlertDTO.builder()
+                        .beerId(beer.getId())
+                        .name(beer.getName())
+                        .quantity(beer.getQuantity())
+                        .max(beer.getMax())
+                        .unit(threshold.getUnit())
+                        .threshold(threshold.getThreshold())
+                        .raisedAt(Instant.now())
+                        .build();
+            } else if (alert != null && !below(beer, threshold.getUnit(), threshold.getThreshold() + threshold.getHysteresis())) {
+                log.info("Beer {} ({}) is back above its stock threshold with {}", beer.getName(), beer.getId(), beer.getQuantity());
+                alert = null;
+            } else if (alert != null) {
+                alert = alert.toBuilder()
+                        .quantity(beer.getQuantity())
+                        .max(beer.getMax())
+                        .unit(threshold.getUnit())
+                        .threshold(threshold.getThreshold())
+                        .build();
+            }
+            return new AlertState(version, alert);
+        });
+    }
+
+    // compares in whole numbers so a percentage never rounds a beer across its threshold
+    private static boolean below(BeerDTO beer, StockThresholdUnit unit, int level) {
+        return unit == StockThresholdUnit.PERCENT
+                ? beer.getQuantity() * 100L < (long) level * beer.getMax()
+                : beer.getQuantity() < level;
+    }
+
+    @Value
+    private static class AlertState {
+
+        long version;
+
+        BeerStockAlertDTO alert;
+    }
+}
@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerTypeStockDTO;
+import one.digitalinnovation.beerstock.entity.BeerStockAggregate;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockStatsDimension;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the total stock and the number of beers at zero stock per beer type.
+ * <p>
+ * A background thread refreshes the values every {@code stock-refresh}; scrapes only read the last
+ * refresh and never touch the database. The totals are the {@link BeerStockAggregate} type rows
+ * summed over their slots. The zero-stock counts are not kept in those rows, so they still come
+ * from a query over the beers, but on the refresh thread rather than on a scrape.
+ */
+@Slf4j
+@Component
+public class BeerStockGauges implements SmartLifecycle {
+
+    private final BeerRepository beerRepository;
+    private final BeerStockAggregateRepository aggregateRepository;
+    private final Duration refreshInterval;
+
+    private volatile Map<BeerType, BeerTypeStockDTO> stockByType = Collections.emptyMap();
+    private ScheduledExecutorService refresher;
+    private volatile boolean running;
+
+    public BeerStockGauges(BeerRepository beerRepository, BeerStockAggregateRepository aggregateRepository,
+                           BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.refreshInterval = properties.getMetrics().getStockRefresh();
+        for (BeerType type : BeerType.values()) {
+            register(meterRegistry, "beerstock.stock.total", "Units in stock across all beers of the type", type, BeerTypeStockDTO::getTotalStock);
+            register(meterRegistry, "beerstock.stock.empty", "Beers of the type with no units in stock", type, BeerTypeStockDTO::getBeersAtZeroStock);
+        }
+    }
+
+    private void register(MeterRegistry meterRegistry, String name, String description, BeerType type, ToLongFunction<BeerTypeStockDTO> value) {
+        Gauge.builder(name, this, gauges -> gauges.valueOf(type, value))
+                .description(description)
+                .tag("type", type.name())
+                .register(meterRegistry);
+    }
+
+    private double valueOf(BeerType type, ToLongFunction<BeerTypeStockDTO> value) {
+        BeerTypeStockDTO stock = stockByType.get(type);
+        return stock == null ? 0 : value.applyAsLong(stock);
+    }
+
+    /**
+     * Re-reads the totals and the zero-stock counts of every type.
+     */
+    public synchronized void refresh() {
+        Map<BeerType, BeerTypeStockDTO> refreshed = new EnumMap<>(BeerType.class);
+        for (BeerType type : BeerType.values()) {
+            refreshed.put(type, new BeerTypeStockDTO(type, 0L, 0L));
+        }
+        for (Object[] row : aggregateRepository.sumQuantityByName(StockStatsDimension.TYPE)) {
+            refreshed.get(BeerType.valueOf((String) row[0])).setTotalStock(((Number) row[1]).longValue());
+        }
+        for (Object[] row : beerRepository.countZeroStockByType()) {
+            refreshed.get((BeerType) row[0]).setBeersAtZeroStock(((Number) row[1]).longValue());
+        }
+        stockByType = refreshed;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Could not refresh the beer stock gauges, retrying in {}", refreshInterval, e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beer-stock-gauges-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
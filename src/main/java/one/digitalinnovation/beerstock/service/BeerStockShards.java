@@ -0,0 +1,182 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockShard;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Opt-in sharded stock for hot beers. A sharded beer keeps its stock in {@code stockShards}
+ * {@link BeerStockShard} rows instead of its quantity column, so concurrent writers to the
+ * same beer mostly lock different rows.
+ * <p>
+ * The beer max is split into fixed shard capacities, which keeps the 0..max rule on the sum
+ * by checking each shard against 0..capacity in its own conditional UPDATE. A change first
+ * tries the shards one at a time from a random start; only when no single shard can take
+ * it whole are all shards of the beer locked and the change spread across them.
+ * <p>
+ * The beer version plus the versions of its shards is the version clients see, so ETags
+ * still change with every stock change without touching the beer row.
+ */
+@Component
+public class BeerStockShards {
+
+    private final BeerRepository beerRepository;
+    private final BeerStockShardRepository shardRepository;
+    private final BeerChangeSequence beerChangeSequence;
+    private final BeerStockStats beerStockStats;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+    private final Counter spreads;
+
+    public BeerStockShards(BeerRepository beerRepository, BeerStockShardRepository shardRepository,
+                           BeerChangeSequence beerChangeSequence, BeerStockStats beerStockStats,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.shardRepository = shardRepository;
+        this.beerChangeSequence = beerChangeSequence;
+        this.beerStockStats = beerStockStats;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spreads = Counter.builder("beerstock.stock.shard.spreads")
+                .description("Sharded stock changes no single shard could take, spread across locked shards")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadShardCounts() {
+        beerRepository.findStockShards().forEach(row -> shardCounts.put((Long) row[0], (Integer) row[1]));
+    }
+
+    public boolean isSharded(Long id) {
+        return shardCounts.containsKey(id);
+    }
+
+    /**
+     * Applies {@code delta} to the shards of a sharded beer, joining the current transaction
+     * if there is one. Returns false when the beer is not sharded or the stock would leave 0..max.
+     */
+    public boolean adjust(Long id, int delta) {
+        int shards = shardCounts.getOrDefault(id, 0);
+        if (shards == 0) {
+            return false;
+        }
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = (start + i) % shards;
+            if (beerStockStats.apply(id, delta, () -> beerChangeSequence.stamp(changeSequence ->
+                    shardRepository.adjustQuantity(id, shard, delta, changeSequence))) > 0) {
+                return true;
+            }
+        }
+        spreads.increment();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> spread(id, shardRepository.lockByBeerId(id), delta)));
+    }
+
+    /**
+     * Applies {@code delta} only if the beer is still at {@code expectedVersion}. All shards are
+     * locked first, so no other change can slip in between the check and the update.
+     */
+    public boolean adjust(Long id, int delta, long expectedVersion) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<BeerStockShard> shards = shardRepository.lockByBeerId(id);
+            boolean atExpectedVersion = beerRepository.findVersionById(id)
+                    .map(version -> version.getVersion() == expectedVersion)
+                    .orElse(false);
+            return atExpectedVersion && spread(id, shards, delta);
+        }));
+    }
+
+    /**
+     * Moves the stock of a beer onto {@code shards} shard rows, or back to its quantity column
+     * when {@code shards} is 0. The total stock is kept; the beer version grows past every
+     * version it had, so no ETag handed out before the change can match after it. Returns
+     * false, changing nothing, while the beer holds reserved stock.
+     */
+    public boolean reshard(Long id, int shards) {
+        Integer resharded = transactionTemplate.execute(status -> {
+            Beer beer = beerRepository.lockById(id).orElse(null);
+            if (beer == null) {
+                return null;
+            }
+            if (beer.getReserved() > 0) {
+                return -1;
+            }
+            List<BeerStockShard> currentShards = shardRepository.lockByBeerId(id);
+            int total = beer.getStockShards() == 0 ? beer.getQuantity()
+                    : currentShards.stream().mapToInt(BeerStockShard::getQuantity).sum();
+            long shardVersions = currentShards.stream().mapToLong(BeerStockShard::getVersion).sum();
+            shardRepository.deleteByBeerId(id);
+            beerChangeSequence.stamp(changeSequence ->
+                    beerRepository.updateStockShards(id, shards, shards == 0 ? total : 0, shardVersions + 1, changeSequence));
+            shardRepository.saveAll(newShards(id, shards, beer.getMax(), total));
+            return shards;
+        });
+        if (resharded == null) {
+            return true;
+        }
+        if (resharded < 0) {
+            return false;
+        }
+        if (resharded == 0) {
+            shardCounts.remove(id);
+        } else {
+            shardCounts.put(id, resharded);
+        }
+        return true;
+    }
+
+    public void forget(Long id) {
+        shardRepository.deleteByBeerId(id);
+        shardCounts.remove(id);
+    }
+
+    // walks the locked shards in order, taking from each what it can until the delta is covered
+    private boolean spread(Long id, List<BeerStockShard> shards, int delta) {
+        int remaining = Math.abs(delta);
+        int room = shards.stream().mapToInt(shard -> room(shard, delta)).sum();
+        if (shards.isEmpty() || room < remaining) {
+            return false;
+        }
+        // spreads always run in a transaction, which keeps the sequence in flight until it completes
+        long changeSequence = beerChangeSequence.stamp(sequence -> sequence);
+        for (BeerStockShard shard : shards) {
+            int share = Math.min(room(shard, delta), remaining);
+            if (share > 0) {
+                shardRepository.adjustQuantity(shard.getBeerId(), shard.getShard(), delta > 0 ? share : -share, changeSequence);
+                remaining -= share;
+            }
+        }
+        beerStockStats.stockChanged(id, delta);
+        return true;
+    }
+
+    private int room(BeerStockShard shard, int delta) {
+        return delta > 0 ? shard.getCapacity() - shard.getQuantity() : shard.getQuantity();
+    }
+
+    // both max and the current total are split as evenly as possible, the remainders going to the first shards
+    private List<BeerStockShard> newShards(Long id, int shards, int max, int total) {
+        return IntStream.range(0, shards)
+                .mapToObj(shard -> BeerStockShard.builder()
+                        .beerId(id)
+                        .shard(shard)
+                        .capacity(max / shards + (shard < max % shards ? 1 : 0))
+                        .quantity(total / shards + (shard < total % shards ? 1 : 0))
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,332 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockStatsDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockAggregate;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockStatsDimension;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Stock totals per beer type and per brand, kept in {@link BeerStockAggregate} rows, so reading
+ * them never scans the beers.
+ * <p>
+ * Creates, deletes and stock changes update the rows in the transaction of the change itself,
+ * after the beer row, so the totals commit or roll back with it. A change touches only the type
+ * and brand rows of its beer's slot, so writers of different beers rarely meet on a row.
+ * <p>
+ * Every {@code reconcile-interval} the rows are checked against a GROUP BY over the beers. The
+ * totals that disagree are checked again with their rows locked and overwritten with what the
+ * GROUP BY found. A change that already updated those rows holds their lock until it commits, so
+ * the GROUP BY sees it; one that has not yet reached them is missing from the GROUP BY and adds its
+ * delta to the repaired rows afterwards. Either way it is counted once. The first run, at startup,
+ * also fills the rows of a catalog created before they existed.
+ */
+@Slf4j
+@Component
+public class BeerStockStats implements SmartLifecycle {
+
+    private final BeerRepository beerRepository;
+    private final BeerStockAggregateRepository aggregateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final BeerStockProperties.Stats properties;
+    private final Counter drifts;
+
+    private ScheduledExecutorService reconciler;
+    private volatile boolean running;
+
+    public BeerStockStats(BeerRepository beerRepository, BeerStockAggregateRepository aggregateRepository,
+                          PlatformTransactionManager transactionManager, BeerStockProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties.getStats();
+        this.drifts = Counter.builder("beerstock.stats.drifts")
+                .description("Type and brand stock totals found out of step with the beers and repaired")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a single-beer stock {@code update} in a transaction and, if it changed a row, adds
+     * {@code delta} to the totals of the beer in that same transaction.
+     */
+    public int apply(Long id, int delta, IntSupplier update) {
+        Integer updatedRows = transactionTemplate.execute(status -> {
+            int rows = update.getAsInt();
+            if (rows > 0) {
+                stockChanged(id, delta);
+            }
+            return rows;
+        });
+        return updatedRows == null ? 0 : updatedRows;
+    }
+
+    /**
+     * Runs a batched stock {@code update} in a transaction and adds every adjustment it applied
+     * to the totals in that same transaction, one update per beer in id order.
+     */
+    public int[] applyAll(List<StockAdjustmentDTO> adjustments, Supplier<int[]> update) {
+        return transactionTemplate.execute(status -> {
+            int[] updatedRows = update.get();
+            Map<Long, Long> deltas = new TreeMap<>();
+            for (int i = 0; i < adjustments.size(); i++) {
+                if (updatedRows[i] > 0) {
+                    deltas.merge(adjustments.get(i).getId(), (long) adjustments.get(i).getQuantity(), Long::sum);
+                }
+            }
+            deltas.forEach(this::stockChanged);
+            return updatedRows;
+        });
+    }
+
+    // called after the beer row is updated, inside the same transaction; see the class comment for why the order matters
+    public void stockChanged(Long id, long delta) {
+        if (delta != 0) {
+            aggregateRepository.adjustQuantity(id, slot(id), delta);
+        }
+    }
+
+    public void beerAdded(Beer beer) {
+        adjust(beer, 1, beer.getQuantity(), beer.getMax());
+    }
+
+    // one update per total touched, however many beers share it
+    public void beersAdded(List<Beer> beers) {
+        Map<SlotKey, long[]> added = new HashMap<>();
+        beers.forEach(beer -> {
+            int slot = slot(beer.getId());
+            long[] totals = {1, beer.getQuantity(), beer.getMax()};
+            add(added, new SlotKey(StockStatsDimension.TYPE, beer.getType().name(), slot), totals);
+            add(added, new SlotKey(StockStatsDimension.BRAND, beer.getBrand(), slot), totals);
+        });
+        added.forEach((key, totals) -> adjust(key.getDimension(), key.getName(), key.getSlot(), totals[0], totals[1], totals[2]));
+    }
+
+    public void beerRemoved(Beer beer, int quantity) {
+        adjust(beer, -1, -quantity, -beer.getMax());
+    }
+
+    public BeerStatsDTO stats() {
+        List<BeerStockAggregate> aggregates = aggregateRepository.findAll();
+        return new BeerStatsDTO(totals(aggregates, StockStatsDimension.TYPE), totals(aggregates, StockStatsDimension.BRAND));
+    }
+
+    /**
+     * Repairs the totals that disagree with a GROUP BY over the beers and returns how many there were.
+     */
+    public int reconcile() {
+        Set<DimensionName> drifted = drifted(expectedTotals(), storedTotals(aggregateRepository.findAll()));
+        if (drifted.isEmpty()) {
+            return 0;
+        }
+        Integer repaired = transactionTemplate.execute(status -> {
+            Map<SlotKey, BeerStockAggregate> locked = drifted.stream()
+                    .flatMap(key -> aggregateRepository.lockByDimensionAndName(key.getDimension(), key.getName()).stream())
+                    .collect(Collectors.toMap(SlotKey::of, aggregate -> aggregate));
+            // read after the lock, so every change already counted in the rows has committed
+            Map<SlotKey, long[]> expected = expectedTotals();
+            Set<DimensionName> stillDrifted = drifted(expected, locked.values().stream()
+                    .collect(Collectors.toMap(SlotKey::of, BeerStockStats::totals)));
+            stillDrifted.retainAll(drifted);
+            stillDrifted.forEach(key -> IntStream.range(0, BeerStockAggregate.SLOTS).forEach(slot -> {
+                SlotKey slotKey = new SlotKey(key.getDimension(), key.getName(), slot);
+                long[] totals = expected.getOrDefault(slotKey, new long[3]);
+                BeerStockAggregate aggregate = locked.get(slotKey);
+                if (aggregate == null) {
+                    aggregate = BeerStockAggregate.builder().dimension(key.getDimension()).name(key.getName()).slot(slot).build();
+                }
+                aggregate.setBeers(totals[0]);
+                aggregate.setQuantity(totals[1]);
+                aggregate.setCapacity(totals[2]);
+                aggregateRepository.save(aggregate);
+            }));
+            return stillDrifted.size();
+        });
+        if (repaired != null && repaired > 0) {
+            drifts.increment(repaired);
+            log.warn("Repaired {} beer stock totals that drifted from the beers", repaired);
+        }
+        return repaired == null ? 0 : repaired;
+    }
+
+    private void adjust(Beer beer, long beers, long quantity, long capacity) {
+        int slot = slot(beer.getId());
+        adjust(StockStatsDimension.TYPE, beer.getType().name(), slot, beers, quantity, capacity);
+        adjust(StockStatsDimension.BRAND, beer.getBrand(), slot, beers, quantity, capacity);
+    }
+
+    private void adjust(StockStatsDimension dimension, String name, int slot, long beers, long quantity, long capacity) {
+        if (aggregateRepository.adjust(dimension, name, slot, beers, quantity, capacity) == 0) {
+            createRow(dimension, name, slot);
+            aggregateRepository.adjust(dimension, name, slot, beers, quantity, capacity);
+        }
+    }
+
+    // in its own transaction, so losing the race to create the row does not roll back the change that needed it
+    private void createRow(StockStatsDimension dimension, String name, int slot) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> aggregateRepository.save(BeerStockAggregate.builder()
+                    .dimension(dimension)
+                    .name(name)
+                    .slot(slot)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Stock totals row {} {} {} was created concurrently", dimension, name, slot);
+        }
+    }
+
+    private int slot(Long id) {
+        return (int) (id % BeerStockAggregate.SLOTS);
+    }
+
+    private List<BeerStockStatsDTO> totals(List<BeerStockAggregate> aggregates, StockStatsDimension dimension) {
+        return aggregates.stream()
+                .filter(aggregate -> aggregate.getDimension() == dimension)
+                .collect(Collectors.groupingBy(BeerStockAggregate::getName, TreeMap::new, Collectors.toList()))
+                .entrySet().stream()
+                .map(slots -> toStats(slots.getKey(), slots.getValue()))
+                .filter(stats -> stats.getBeers() > 0)
+                .collect(Collectors.toList());
+    }
+
+    private BeerStockStatsDTO toStats(String name, List<BeerStockAggregate> slots) {
+        long beers = slots.stream().mapToLong(BeerStockAggregate::getBeers).sum();
+        long quantity = slots.stream().mapToLong(BeerStockAggregate::getQuantity).sum();
+        long capacity = slots.stream().mapToLong(BeerStockAggregate::getCapacity).sum();
+        return BeerStockStatsDTO.builder()
+                .name(name)
+                .beers(beers)
+                .quantity(quantity)
+                .capacity(capacity)
+                .fillRatio(capacity == 0 ? 0 : (double) quantity / capacity)
+                .build();
+    }
+
+    private Map<SlotKey, long[]> expectedTotals() {
+        Map<SlotKey, long[]> expected = new HashMap<>();
+        for (Object[] row : beerRepository.sumStockByTypeBrandAndSlot()) {
+            int slot = ((Number) row[2]).intValue();
+            long[] totals = {((Number) row[3]).longValue(), ((Number) row[4]).longValue(), ((Number) row[5]).longValue()};
+            add(expected, new SlotKey(StockStatsDimension.TYPE, ((BeerType) row[0]).name(), slot), totals);
+            add(expected, new SlotKey(StockStatsDimension.BRAND, (String) row[1], slot), totals);
+        }
+        return expected;
+    }
+
+    private Map<SlotKey, long[]> storedTotals(List<BeerStockAggregate> aggregates) {
+        return aggregates.stream().collect(Collectors.toMap(SlotKey::of, BeerStockStats::totals));
+    }
+
+    private static long[] totals(BeerStockAggregate aggregate) {
+        return new long[]{aggregate.getBeers(), aggregate.getQuantity(), aggregate.getCapacity()};
+    }
+
+    private static void add(Map<SlotKey, long[]> totals, SlotKey key, long[] values) {
+        totals.merge(key, values, (current, added) -> IntStream.range(0, current.length).mapToLong(i -> current[i] + added[i]).toArray());
+    }
+
+    // a missing row counts as all zeros, as it would once created
+    private Set<DimensionName> drifted(Map<SlotKey, long[]> expected, Map<SlotKey, long[]> stored) {
+        Set<SlotKey> keys = new HashSet<>(expected.keySet());
+        keys.addAll(stored.keySet());
+        return keys.stream()
+                .filter(key -> !Arrays.equals(expected.getOrDefault(key, new long[3]), stored.getOrDefault(key, new long[3])))
+                .map(key -> new DimensionName(key.getDimension(), key.getName()))
+                .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(DimensionName::getDimension)
+                        .thenComparing(DimensionName::getName))));
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Could not reconcile beer stock totals, retrying in {}", properties.getReconcileInterval(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beer-stock-stats-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getReconcileInterval().toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        reconciler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Value
+    private static class DimensionName {
+
+        StockStatsDimension dimension;
+
+        String name;
+    }
+
+    @Value
+    private static class SlotKey {
+
+        StockStatsDimension dimension;
+
+        String name;
+
+        int slot;
+
+        private static SlotKey of(BeerStockAggregate aggregate) {
+            return new SlotKey(aggregate.getDimension(), aggregate.getName(), aggregate.getSlot());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges stock changes to the same beer that arrive within a short window into one
+ * UPDATE. The first caller leads the batch: it waits for the window (or until the batch
+ * is full), applies the deltas in arrival order against the stored quantity so each
+ * caller keeps its own outcome, and writes the accepted total with a compare-and-set
+ * on the quantity it read. A compare-and-set lost to another writer is a lost race like
+ * any other: the batch is re-read and retried through {@link StockMutationRetrier}, with
+ * its backoff and attempt cap, and every caller in it gets the conflict once it gives up.
+ */
+@Component
+public class StockGroupCommitter {
+
+    private final BeerRepository beerRepository;
+    private final BeerChangeSequence beerChangeSequence;
+    private final BeerStockStats beerStockStats;
+    private final StockMutationRetrier stockMutationRetrier;
+    private final BeerStockProperties.GroupCommit properties;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final ConcurrentMap<Long, Batch> openBatches = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSizes;
+
+    public StockGroupCommitter(BeerRepository beerRepository, BeerChangeSequence beerChangeSequence, BeerStockStats beerStockStats,
+                               StockMutationRetrier stockMutationRetrier, BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.beerChangeSequence = beerChangeSequence;
+        this.beerStockStats = beerStockStats;
+        this.stockMutationRetrier = stockMutationRetrier;
+        this.properties = properties.getGroupCommit();
+        this.batchSizes = DistributionSummary.builder("beerstock.stock.group.commit.size")
+                .description("Stock changes merged into each group-committed UPDATE")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public BeerDTO submit(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        PendingChange change = new PendingChange(delta);
+        Batch batch;
+        boolean leader;
+        while (true) {
+            batch = openBatches.computeIfAbsent(id, key -> new Batch());
+            synchronized (batch) {
+                if (!batch.closed && batch.changes.size() < properties.getMaxBatchSize()) {
+                    batch.changes.add(change);
+                    leader = batch.changes.size() == 1;
+                    batch.notifyAll();
+                    break;
+                }
+            }
+            openBatches.remove(id, batch);
+        }
+        if (leader) {
+            batch.awaitWindow(properties.getWindow().toNanos(), properties.getMaxBatchSize());
+            openBatches.remove(id, batch);
+            commit(id, batch.changes);
+        }
+        return await(change.result);
+    }
+
+    private void commit(Long id, List<PendingChange> changes) {
+        batchSizes.record(changes.size());
+        try {
+            stockMutationRetrier.execute(id, () -> tryCommit(id, changes));
+        } catch (BeerNotFoundException | BeerStockExceededException | BeerStockConflictException e) {
+            changes.forEach(change -> change.result.completeExceptionally(e));
+        } catch (RuntimeException | Error e) {
+            changes.forEach(change -> change.result.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private Void tryCommit(Long id, List<PendingChange> changes) throws BeerNotFoundException {
+        Beer beer = beerRepository.findById(id).orElseThrow(() -> new BeerNotFoundException(id));
+        int quantity = beer.getQuantity();
+        List<PendingChange> accepted = new ArrayList<>();
+        for (PendingChange change : changes) {
+            long newQuantity = (long) quantity + change.delta;
+            if (newQuantity >= beer.getReserved() && newQuantity <= beer.getMax()) {
+                quantity = (int) newQuantity;
+                accepted.add(change);
+            }
+        }
+        int newQuantity = quantity;
+        if (!accepted.isEmpty() && beerStockStats.apply(id, newQuantity - beer.getQuantity(), () -> beerChangeSequence.stamp(changeSequence ->
+                beerRepository.compareAndSetQuantity(id, beer.getQuantity(), newQuantity, changeSequence))) == 0) {
+            throw new OptimisticLockingFailureException(String.format("Stock of beer with %s ID changed since it was read", id));
+        }
+        BeerDTO committed = beerMapper.toDTO(beer);
+        committed.setQuantity(quantity);
+        committed.setVersion(accepted.isEmpty() ? beer.getVersion() : beer.getVersion() + 1);
+        for (PendingChange change : changes) {
+            if (accepted.contains(change)) {
+                change.result.complete(committed);
+            } else {
+                change.result.completeExceptionally(new BeerStockExceededException(id, Math.abs(change.delta)));
+            }
+        }
+        return null;
+    }
+
+    private BeerDTO await(CompletableFuture<BeerDTO> result) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeerNotFoundException) {
+                throw (BeerNotFoundException) cause;
+            }
+            if (cause instanceof BeerStockExceededException) {
+                throw (BeerStockExceededException) cause;
+            }
+            if (cause instanceof BeerStockConflictException) {
+                throw (BeerStockConflictException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class PendingChange {
+
+        private final int delta;
+        private final CompletableFuture<BeerDTO> result = new CompletableFuture<>();
+
+        private PendingChange(int delta) {
+            this.delta = delta;
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<PendingChange> changes = new ArrayList<>();
+        private boolean closed;
+
+        private synchronized void awaitWindow(long windowNanos, int maxBatchSize) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (remaining > 0 && changes.size() < maxBatchSize) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries a stock mutation that lost a race on its beer row (version conflict, lock
+ * timeout or deadlock victim), waiting an exponentially growing, fully jittered delay
+ * between attempts. Business failures are never retried.
+ * <p>
+ * Conflicts are tagged by beer for the first {@code max-tagged-beers} beers that hit one, and
+ * as {@code other} after that, so the series stay bounded however large the catalog grows.
+ * The retry and exhaustion counters are not tagged by beer.
+ */
+@Slf4j
+@Component
+public class StockMutationRetrier {
+
+    private static final String CONFLICTS_METRIC = "beerstock.stock.conflicts";
+    private static final String RETRIES_METRIC = "beerstock.stock.retries";
+    private static final String EXHAUSTED_METRIC = "beerstock.stock.retries.exhausted";
+    private static final String OTHER_BEERS = "other";
+
+    private final BeerStockProperties.StockRetry properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<Long> taggedBeers = ConcurrentHashMap.newKeySet();
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public StockMutationRetrier(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getStockRetry();
+        this.meterRegistry = meterRegistry;
+        this.retries = Counter.builder(RETRIES_METRIC)
+                .description("Stock mutations retried after a conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder(EXHAUSTED_METRIC)
+                .description("Stock mutations rejected after running out of retries")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface StockMutation<T> {
+        T run() throws BeerNotFoundException, BeerStockExceededException;
+    }
+
+    public <T> T execute(Long beerId, StockMutation<T> mutation) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        int maxAttempts = Math.max(properties.getMaxAttempts(), 1);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mutation.run();
+            } catch (ConcurrencyFailureException e) {
+                conflicts(beerId).increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Giving up stock mutation on beer {} after {} attempts", beerId, attempt, e);
+                    throw new BeerStockConflictException(beerId, attempt);
+                }
+                retries.increment();
+                log.debug("Stock mutation on beer {} lost a race on attempt {}, retrying", beerId, attempt);
+                backOff(beerId, attempt);
+            }
+        }
+    }
+
+    private Counter conflicts(Long beerId) {
+        return Counter.builder(CONFLICTS_METRIC)
+                .description("Stock mutations that lost a race on the beer row")
+                .tag("beer", beerTag(beerId))
+                .register(meterRegistry);
+    }
+
+    private String beerTag(Long beerId) {
+        if (!taggedBeers.contains(beerId)) {
+            synchronized (taggedBeers) {
+                if (taggedBeers.size() >= properties.getMaxTaggedBeers()) {
+                    return OTHER_BEERS;
+                }
+                taggedBeers.add(beerId);
+            }
+        }
+        return beerId.toString();
+    }
+
+    private void backOff(Long beerId, int attempt) throws BeerStockConflictException {
+        long initial = properties.getInitialBackoff().toMillis();
+        long cap = Math.min(properties.getMaxBackoff().toMillis(), initial << Math.min(attempt - 1, 30));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeerStockConflictException(beerId, attempt);
+        }
+    }
+}
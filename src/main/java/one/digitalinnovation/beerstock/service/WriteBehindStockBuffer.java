@@ -0,0 +1,554 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.CacheConfig;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Optional write-behind mode for single-beer increments and decrements.
+ * <p>
+ * Each beer touched gets an in-memory counter whose quantity, version and changes not yet
+ * written to the database move together as one immutable state swapped by compare-and-set,
+ * so the reserved..max check and the bookkeeping happen without locks. Every accepted change
+ * moves the version the caller sees. Pending changes are summed per beer and written as one
+ * batch every {@code flush-interval}, or sooner once {@code flush-threshold} changes are
+ * waiting; the row version moves once per change written, so it ends where the counter's did,
+ * and each flush bumps the catalog version and evicts the flushed beers from the name cache.
+ * A counter left untouched for a whole interval is dropped, so memory follows the beers
+ * recently changed rather than every beer ever changed.
+ * <p>
+ * A counter is only exact while nothing else writes its row, so every direct write of a
+ * beer's stock (reservations, batch adjustments, conditional PATCHes, resharding, deletion)
+ * first {@link #exclude excludes} the beer: its counter is closed, its pending changes are
+ * written, and changes to it bypass the buffer until the direct write completes. Accepting a
+ * change is therefore final. Should the database still refuse a delta because the row was
+ * changed behind the service's back, the part that fits the stored stock is applied and only
+ * the remainder is logged and counted as rejected.
+ * <p>
+ * Crash-loss window: changes are acknowledged before they are written, so a crash loses
+ * at most the changes accepted since the last successful flush, bounded by the flush
+ * interval or threshold while the database is reachable. A failed flush keeps its deltas
+ * and retries them with the next one, and a graceful shutdown flushes before the
+ * datasource closes.
+ */
+@Slf4j
+@Component
+public class WriteBehindStockBuffer implements SmartLifecycle {
+
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+    private static final Exclusion NO_EXCLUSION = () -> {
+    };
+
+    private final BeerRepository beerRepository;
+    private final BeerChangeSequence beerChangeSequence;
+    private final BeerStockStats beerStockStats;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate writeTransaction;
+    private final BeerStockProperties.WriteBehind properties;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final ConcurrentMap<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Integer> exclusions = new ConcurrentHashMap<>();
+    private final AtomicLong liftedExclusions = new AtomicLong();
+    private final ConcurrentMap<Long, Pending> failedDeltas = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter flushedDeltas;
+    private final Counter rejectedDeltas;
+    private final Counter failedFlushes;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public WriteBehindStockBuffer(BeerRepository beerRepository, BeerChangeSequence beerChangeSequence,
+                                  BeerStockStats beerStockStats, BeerCatalogVersion beerCatalogVersion,
+                                  CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                                  BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.beerChangeSequence = beerChangeSequence;
+        this.beerStockStats = beerStockStats;
+        this.beerCatalogVersion = beerCatalogVersion;
+        this.cacheManager = cacheManager;
+        // joins the direct write's transaction, so excluding a beer never takes a second connection
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.properties = properties.getWriteBehind();
+        Gauge.builder("beerstock.stock.write.behind.pending", pendingChanges, AtomicInteger::get)
+                .description("Stock changes accepted in memory and not yet written to the database")
+                .register(meterRegistry);
+        this.flushedDeltas = Counter.builder("beerstock.stock.write.behind.flushed")
+                .description("Per-beer stock deltas written to the database")
+                .register(meterRegistry);
+        this.rejectedDeltas = Counter.builder("beerstock.stock.write.behind.rejected")
+                .description("Per-beer stock deltas the database refused in full or in part")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("beerstock.stock.write.behind.failures")
+                .description("Flushes that failed and were left for the next attempt")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Accepts the change in memory, or returns empty when the buffer is disabled or the
+     * beer is excluded; the caller then writes the change directly under an {@link #exclude exclusion}.
+     */
+    public Optional<BeerDTO> adjust(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        while (true) {
+            StockCounter counter = counterFor(id);
+            if (counter == null) {
+                return Optional.empty();
+            }
+            State adjusted = counter.tryAdjust(delta);
+            if (adjusted == State.CLOSED) {
+                continue;
+            }
+            if (adjusted == State.OUT_OF_RANGE) {
+                throw new BeerStockExceededException(id, Math.abs(delta));
+            }
+            if (pendingChanges.incrementAndGet() >= properties.getFlushThreshold()) {
+                requestFlush();
+            }
+            return Optional.of(counter.snapshot(adjusted));
+        }
+    }
+
+    /**
+     * Writes the pending changes of the given beers and keeps them out of the buffer until
+     * the returned exclusion is closed and the surrounding transaction, if any, completes.
+     * The pending changes are written in that transaction and queued again for the next
+     * flush should it roll back, since they were acknowledged already.
+     */
+    public Exclusion exclude(Collection<Long> ids) {
+        if (!isEnabled()) {
+            return NO_EXCLUSION;
+        }
+        Set<Long> excludedIds = new TreeSet<>(ids);
+        Map<Long, Pending> deltas = new HashMap<>();
+        excludedIds.forEach(id -> counters.compute(id, (key, counter) -> {
+            exclusions.merge(key, 1, Integer::sum);
+            if (counter != null) {
+                Pending pending = counter.close();
+                if (!pending.isEmpty()) {
+                    deltas.put(key, pending);
+                }
+            }
+            return null;
+        }));
+        // waits for a flush that may have taken part of these changes already
+        flushLock.lock();
+        try {
+            excludedIds.forEach(id -> Optional.ofNullable(failedDeltas.remove(id))
+                    .ifPresent(failed -> deltas.merge(id, failed, Pending::plus)));
+            if (!deltas.isEmpty()) {
+                write(deltas, true);
+                requeueOnRollback(deltas);
+            }
+        } catch (RuntimeException e) {
+            lift(excludedIds);
+            throw e;
+        } finally {
+            flushLock.unlock();
+        }
+        return () -> {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lift(excludedIds);
+                    }
+                });
+            } else {
+                lift(excludedIds);
+            }
+        };
+    }
+
+    // registered before the exclusion's own synchronization, so the beer stays out of the buffer until they are written
+    private void requeueOnRollback(Map<Long, Pending> deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deltas.forEach((id, delta) -> failedDeltas.merge(id, delta, Pending::plus));
+                }
+            }
+        });
+    }
+
+    // counted before the marks go, so a counter loaded while the direct write ran is loaded again
+    private void lift(Collection<Long> ids) {
+        liftedExclusions.incrementAndGet();
+        ids.forEach(id -> exclusions.computeIfPresent(id, (key, count) -> count == 1 ? null : count - 1));
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<Long, Pending> deltas = new HashMap<>(failedDeltas);
+            failedDeltas.clear();
+            counters.forEach((id, counter) -> {
+                Pending pending = counter.takePending();
+                if (!pending.isEmpty()) {
+                    deltas.merge(id, pending, Pending::plus);
+                } else {
+                    // untouched for a whole interval; the next change loads the beer again
+                    counters.computeIfPresent(id, (key, current) -> current == counter && counter.retireIfIdle() ? null : current);
+                }
+            });
+            pendingChanges.set(0);
+            if (deltas.isEmpty()) {
+                return;
+            }
+            write(deltas, true);
+        } catch (RuntimeException e) {
+            log.error("Could not flush buffered stock deltas, keeping them for the next flush", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<Long, Pending> deltas, boolean applyWhatFits) {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(deltas.keySet()));
+        List<StockAdjustmentDTO> adjustments = ids.stream()
+                .map(id -> StockAdjustmentDTO.builder().id(id).quantity(deltas.get(id).getDelta()).build())
+                .collect(Collectors.toList());
+        int[] versionIncrements = ids.stream().mapToInt(id -> deltas.get(id).getChanges()).toArray();
+        int[] updatedRows;
+        try {
+            updatedRows = writeTransaction.execute(status -> {
+                int[] rows = beerStockStats.applyAll(adjustments, () -> beerChangeSequence.stampEach(adjustments.size(), changeSequence ->
+                        beerRepository.adjustQuantities(adjustments, versionIncrements, changeSequence)));
+                beerCatalogVersion.changed();
+                beersByNameCache().ifPresent(cache -> IntStream.range(0, ids.size())
+                        .filter(i -> rows[i] != 0)
+                        .forEach(i -> cache.evict(deltas.get(ids.get(i)).getName())));
+                return rows;
+            });
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            deltas.forEach((id, delta) -> failedDeltas.merge(id, delta, Pending::plus));
+            throw e;
+        }
+        Map<Long, Pending> rejected = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (updatedRows[i] == 0) {
+                rejected.put(ids.get(i), deltas.get(ids.get(i)));
+            } else {
+                flushedDeltas.increment();
+            }
+        }
+        if (rejected.isEmpty()) {
+            return;
+        }
+        if (applyWhatFits) {
+            applyWhatFits(rejected);
+        } else {
+            rejected.forEach((id, delta) -> {
+                rejectedDeltas.increment();
+                log.error("Dropped buffered stock delta {} for beer {}: rejected by the database twice", delta.getDelta(), id);
+            });
+        }
+    }
+
+    // only reached when a row changed without excluding its beer first
+    private void applyWhatFits(Map<Long, Pending> rejected) {
+        Map<Long, Beer> storedBeers = beerRepository.findAllById(rejected.keySet()).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+        Map<Long, Pending> fitting = new HashMap<>();
+        rejected.forEach((id, delta) -> {
+            // the counter counted from a stock that no longer holds; what it took since waits for the next flush
+            counters.computeIfPresent(id, (key, counter) -> {
+                Pending rest = counter.close();
+                if (!rest.isEmpty()) {
+                    failedDeltas.merge(key, rest, Pending::plus);
+                }
+                return null;
+            });
+            Beer storedBeer = storedBeers.get(id);
+            int fits = storedBeer == null || storedBeer.getStockShards() > 0 ? 0 : fittingDelta(storedBeer, delta.getDelta());
+            rejectedDeltas.increment();
+            log.error("Buffered stock delta {} for beer {} no longer fits the stored stock, applying {} of it",
+                    delta.getDelta(), id, fits);
+            if (storedBeer != null && storedBeer.getStockShards() == 0) {
+                fitting.put(id, new Pending(delta.getName(), fits, delta.getChanges()));
+            }
+        });
+        if (!fitting.isEmpty()) {
+            write(fitting, false);
+        }
+    }
+
+    private static int fittingDelta(Beer storedBeer, int delta) {
+        if (delta < 0) {
+            return Math.max(delta, Math.min(0, storedBeer.getReserved() - storedBeer.getQuantity()));
+        }
+        return Math.min(delta, Math.max(0, storedBeer.getMax() - storedBeer.getQuantity()));
+    }
+
+    // an excluded beer, or one whose changes could not be written since its counter closed, is not buffered
+    private StockCounter counterFor(Long id) throws BeerNotFoundException {
+        while (true) {
+            StockCounter counter = counters.get(id);
+            if (counter != null) {
+                return counter;
+            }
+            if (isExcluded(id)) {
+                return null;
+            }
+            long liftedBefore = liftedExclusions.get();
+            BeerDTO beer = beerMapper.toDTO(beerRepository.findById(id).orElseThrow(() -> new BeerNotFoundException(id)));
+            StockCounter created = counters.compute(id, (key, current) ->
+                    current != null || isExcluded(key) || liftedExclusions.get() != liftedBefore ? current : new StockCounter(beer));
+            if (created != null) {
+                return created;
+            }
+        }
+    }
+
+    private boolean isExcluded(Long id) {
+        return exclusions.containsKey(id) || failedDeltas.containsKey(id);
+    }
+
+    private Optional<Cache> beersByNameCache() {
+        return Optional.ofNullable(cacheManager.getCache(CacheConfig.BEERS_BY_NAME_CACHE))
+                .map(TransactionAwareCacheDecorator::new);
+    }
+
+    private void requestFlush() {
+        if (running && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Unexpected failure flushing buffered stock deltas", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beer-stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(properties.getFlushInterval().toMillis() * 2 + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int attempt = 1; attempt <= SHUTDOWN_FLUSH_ATTEMPTS; attempt++) {
+            flush();
+            if (failedDeltas.isEmpty()) {
+                return;
+            }
+        }
+        log.error("Shutting down with buffered stock deltas that could not be written for beers {}", failedDeltas.keySet());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops after the web server, so no change is accepted once the last flush ran
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Keeps a beer out of the buffer while its stock is written directly; closing it is
+     * deferred to the end of the surrounding transaction, if any.
+     */
+    public interface Exclusion extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Beer details and reserved units are fixed for the counter's lifetime, since a
+     * reservation or any other direct write excludes the beer and closes its counter first.
+     */
+    static final class StockCounter {
+
+        private final AtomicReference<State> state;
+        private final BeerDTO beer;
+        private volatile State drained;
+
+        StockCounter(BeerDTO beer) {
+            this.beer = beer;
+            this.drained = new State(beer.getQuantity(), 0, 0, beer.getVersion());
+            this.state = new AtomicReference<>(drained);
+        }
+
+        State tryAdjust(int delta) {
+            while (true) {
+                State current = state.get();
+                if (current == State.CLOSED) {
+                    return State.CLOSED;
+                }
+                long quantity = current.quantity + (long) delta;
+                if (quantity < beer.getReserved() || quantity > beer.getMax()) {
+                    return State.OUT_OF_RANGE;
+                }
+                State adjusted = new State((int) quantity, current.pendingDelta + delta, current.pendingChanges + 1, current.version + 1);
+                if (state.compareAndSet(current, adjusted)) {
+                    return adjusted;
+                }
+            }
+        }
+
+        Pending takePending() {
+            while (true) {
+                State current = state.get();
+                if (current == State.CLOSED || current.pendingChanges == 0) {
+                    return Pending.NONE;
+                }
+                State taken = new State(current.quantity, 0, 0, current.version);
+                if (state.compareAndSet(current, taken)) {
+                    drained = taken;
+                    return pendingOf(current);
+                }
+            }
+        }
+
+        // every accepted change swaps the state, so an unchanged one means none since the last flush took them
+        boolean retireIfIdle() {
+            return state.compareAndSet(drained, State.CLOSED);
+        }
+
+        Pending close() {
+            State last = state.getAndSet(State.CLOSED);
+            return last == State.CLOSED ? Pending.NONE : pendingOf(last);
+        }
+
+        BeerDTO snapshot(State current) {
+            return BeerDTO.builder()
+                    .id(beer.getId())
+                    .name(beer.getName())
+                    .brand(beer.getBrand())
+                    .max(beer.getMax())
+                    .quantity(current.quantity)
+                    .reserved(beer.getReserved())
+                    .type(beer.getType())
+                    .version(current.version)
+                    .build();
+        }
+
+        private Pending pendingOf(State current) {
+            return new Pending(beer.getName(), current.pendingDelta, current.pendingChanges);
+        }
+    }
+
+    static final class State {
+
+        static final State CLOSED = new State(0, 0, 0, 0);
+        static final State OUT_OF_RANGE = new State(0, 0, 0, 0);
+
+        private final int quantity;
+        private final int pendingDelta;
+        private final int pendingChanges;
+        private final long version;
+
+        private State(int quantity, int pendingDelta, int pendingChanges, long version) {
+            this.quantity = quantity;
+            this.pendingDelta = pendingDelta;
+            this.pendingChanges = pendingChanges;
+            this.version = version;
+        }
+    }
+
+    // a zero delta still carries the versions handed out for it
+    @Getter
+    @AllArgsConstructor
+    static final class Pending {
+
+        static final Pending NONE = new Pending(null, 0, 0);
+
+        private final String name;
+        private final int delta;
+        private final int changes;
+
+        boolean isEmpty() {
+            return changes == 0;
+        }
+
+        Pending plus(Pending other) {
+            return new Pending(name != null ? name : other.name, delta + other.delta, changes + other.changes);
+        }
+    }
+}
@@ -26,15 +26,23 @@ public class BeerDTOBuilder {
     @Builder.Default
     private int quantity = 10;
 
+    @Builder.Default
+    private int reserved = 0;
+
     @Builder.Default
     private BeerType type = BeerType.LAGER;
 
+    @Builder.Default
+    private Long version = 0L;
+
     public BeerDTO toBeerDTO() {
         return new BeerDTO(id,
                 name,
                 brand,
                 max,
                 quantity,
-                type);
+                reserved,
+                type,
+                version);
     }
 }
@@ -1,11 +1,38 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerBulkRequestDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerDeltaDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockAlertDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockThresholdDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerTombstoneDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
+import one.digitalinnovation.beerstock.dto.BeerVersionDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.beerstock.enums.StockThresholdUnit;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.service.BeerChangeFeed;
+import one.digitalinnovation.beerstock.service.BeerDeltaSync;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.BeerStockAlerts;
+import one.digitalinnovation.beerstock.service.BeerStockStats;
 import org.hamcrest.core.Is;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,21 +40,33 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,9 +78,21 @@ public class BeerControllerTest {
     private static final long INVALID_BEER_ID = 2L;
     private static final String BEER_API_SUB_PATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUB_PATH_DECREMENT_URL = "/decrement";
+    private static final String BEER_API_SUB_PATH_STOCK_URL = "/stock";
+    private static final String BEER_API_SUB_PATH_BULK_URL = "/bulk";
     MockMvc mockMvc;
     @Mock
     private BeerService beerService;
+    @Mock
+    private BeerChangeFeed beerChangeFeed;
+    @Mock
+    private BeerDeltaSync beerDeltaSync;
+    @Mock
+    private BeerStockStats beerStockStats;
+    @Mock
+    private BeerStockAlerts beerStockAlerts;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
     @InjectMocks
     private BeerController beerController;
 
@@ -83,6 +134,38 @@ public class BeerControllerTest {
                 andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Quando o método POST em lote for chamado, então as cervejas deverão ser criadas")
+    void whenPOSTBulkIsCalledThenBeersAreCreated() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerBulkRequestDTO request = BeerBulkRequestDTO.builder().beers(List.of(beerDTO)).build();
+
+        // WHEN
+        when(beerService.createBeers(request.getBeers())).thenReturn(List.of(beerDTO));
+
+        mockMvc.perform(post(BEER_API_URL_PATH.concat(BEER_API_SUB_PATH_BULK_URL)).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(request))).
+                andExpect(status().isCreated()).
+                andExpect(jsonPath("$[0].name", Is.is(beerDTO.getName()))).
+                andExpect(jsonPath("$[0].brand", Is.is(beerDTO.getBrand())));
+    }
+
+    @Test
+    @DisplayName("Quando o método POST em lote for chamado com campos inválidos, então um erro deverá ser retornado")
+    void whenPOSTBulkIsCalledWithoutRequiredFieldThenAnErrorIsReturned() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setBrand(null);
+        BeerBulkRequestDTO request = BeerBulkRequestDTO.builder().beers(List.of(beerDTO)).build();
+
+        mockMvc.perform(post(BEER_API_URL_PATH.concat(BEER_API_SUB_PATH_BULK_URL)).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(request))).
+                andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Quando o método GET for chamado com um nome válido, então o status ok deverá ser retornado")
     void whenGETIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
@@ -114,6 +197,39 @@ public class BeerControllerTest {
                 andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Quando o método GET for chamado, então a versão da cerveja deverá ser retornada no ETag")
+    void whenGETIsCalledThenBeerVersionIsReturnedInETag() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().version(3L).build().toBeerDTO();
+
+        // WHEN
+        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+        mockMvc.perform(get(BEER_API_URL_PATH.concat(format("/%s", beerDTO.getName()))).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(header().string(HttpHeaders.ETAG, "\"1.3\"")).
+                andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Quando o método GET for chamado com ETag atual, então o status not modified é retornado sem carregar a cerveja")
+    void whenGETIsCalledWithCurrentETagThenNotModifiedIsReturnedWithoutLoadingTheBeer() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // WHEN
+        when(beerService.findVersionByName(beerDTO.getName())).thenReturn(Optional.of(new BeerVersionDTO(beerDTO.getId(), 3L)));
+
+        mockMvc.perform(get(BEER_API_URL_PATH.concat(format("/%s", beerDTO.getName()))).
+                header(HttpHeaders.IF_NONE_MATCH, "\"1.2\", W/\"1.3\"")).
+                andExpect(status().isNotModified()).
+                andExpect(header().string(HttpHeaders.ETAG, "\"1.3\"")).
+                andExpect(content().string(""));
+        verify(beerService, never()).findByName(beerDTO.getName());
+    }
+
     @Test
     @DisplayName("Quando o método GET para listagem de cerveja for chamado, então retorne o status ok")
     void whenGETBeersListIsCalledThenReturnTheStatusOk() throws Exception {
@@ -121,7 +237,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         // WHEN
-        when(beerService.listAll()).thenReturn(List.of(beerDTO));
+        when(beerService.listPage(null, 100, null)).thenReturn(new BeerPageDTO(List.of(beerDTO), null, null));
 
         mockMvc.perform(get(BEER_API_URL_PATH).
                 contentType(MediaType.APPLICATION_JSON)).
@@ -135,11 +251,295 @@ public class BeerControllerTest {
     @DisplayName("Quando o método GET para listagem de cerveja for chamado, então retorne o status ok")
     void whenGETBeersListIsCalledThenReturnTheStatusOkWithEmptyList() throws Exception {
         // WHEN
-        when(beerService.listAll()).thenReturn(Collections.emptyList());
+        when(beerService.listPage(null, 100, null)).thenReturn(new BeerPageDTO(Collections.emptyList(), null, null));
+
+        mockMvc.perform(get(BEER_API_URL_PATH).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(header().doesNotExist(BeerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET para listagem for chamado com o ETag do catálogo atual, então o status not modified é retornado")
+    void whenGETBeersListIsCalledWithCurrentCatalogETagThenNotModifiedIsReturned() throws Exception {
+        // WHEN
+        when(beerService.catalogVersion()).thenReturn("k1.7");
 
         mockMvc.perform(get(BEER_API_URL_PATH).
+                header(HttpHeaders.IF_NONE_MATCH, "\"catalog.k1.7\"")).
+                andExpect(status().isNotModified()).
+                andExpect(header().string(HttpHeaders.ETAG, "\"catalog.k1.7\""));
+        verify(beerService, never()).listPage(null, 100, null);
+    }
+
+    @Test
+    @DisplayName("Quando o método GET para listagem for chamado com campos, então somente esses campos são retornados")
+    void whenGETBeersListIsCalledWithFieldsThenOnlyThoseFieldsAreReturned() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTO.builder().id(VALID_BEER_ID).name("Brahma").quantity(10).build();
+
+        // WHEN
+        when(beerService.catalogVersion()).thenReturn("k1.7");
+        when(beerService.listPage(null, 100, EnumSet.of(BeerField.NAME, BeerField.QUANTITY)))
+                .thenReturn(new BeerPageDTO(List.of(beerDTO), null, null));
+
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("?fields=name,quantity")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$[0].name", Is.is("Brahma"))).
+                andExpect(jsonPath("$[0].quantity", Is.is(10))).
+                andExpect(jsonPath("$[0]", not(hasKey("brand")))).
+                andExpect(header().string(HttpHeaders.ETAG, "\"catalog.k1.7.name+quantity\""));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET para listagem for chamado com um campo desconhecido, então um status 400 é retornado")
+    void whenGETBeersListIsCalledWithUnknownFieldThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("?fields=name,color")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isBadRequest());
+        verify(beerService, never()).listPage(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Quando o método GET para listagem for chamado com cursor, então o próximo cursor deverá ser retornado no cabeçalho")
+    void whenGETBeersListIsCalledWithCursorThenNextCursorIsReturnedInHeaders() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // WHEN
+        when(beerService.listPage(0L, 1, null)).thenReturn(new BeerPageDTO(List.of(beerDTO), beerDTO.getId(), null));
+
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("?after=0&limit=1")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$[0].name", Is.is(beerDTO.getName()))).
+                andExpect(header().string(BeerController.NEXT_CURSOR_HEADER, beerDTO.getId().toString())).
+                andExpect(header().string("Link", "<http://localhost/api/v1/beers?limit=1&after=1>; rel=\"next\""));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET para listagem for chamado com página, então a paginação por offset deverá ser usada")
+    void whenGETBeersListIsCalledWithPageThenOffsetPaginationIsUsed() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // WHEN
+        when(beerService.listOffsetPage(0, 1, null)).thenReturn(new BeerPageDTO(List.of(beerDTO), null, 1));
+
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("?page=0&limit=1")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(header().string(BeerController.NEXT_PAGE_HEADER, "1"));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de mudanças desde uma sequência for chamado, então as alterações e remoções são retornadas")
+    void whenGETChangesSinceIsCalledThenUpsertsAndTombstonesAreReturned() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerTombstoneDTO tombstoneDTO = BeerTombstoneDTO.builder().id(2L).name("Skol").build();
+
+        // WHEN
+        when(beerDeltaSync.changesSince(10L, 100)).thenReturn(new BeerDeltaDTO(12L, false, List.of(beerDTO), List.of(tombstoneDTO), false, null));
+
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/changes-since/10")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$.sequence", Is.is(12))).
+                andExpect(jsonPath("$.snapshot", Is.is(false))).
+                andExpect(jsonPath("$.upserts[0].name", Is.is(beerDTO.getName()))).
+                andExpect(jsonPath("$.tombstones[0].id", Is.is(2))).
+                andExpect(jsonPath("$.tombstones[0].name", Is.is("Skol")));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de mudanças for chamado com cursor, então a próxima página do catálogo completo é retornada")
+    void whenGETChangesSinceIsCalledWithCursorThenNextSnapshotPageIsReturned() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // WHEN
+        when(beerDeltaSync.snapshotAfter(12L, 1L, 1)).thenReturn(new BeerDeltaDTO(12L, true, List.of(beerDTO), List.of(), true, beerDTO.getId()));
+
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/changes-since/12?after=1&limit=1")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$.snapshot", Is.is(true))).
+                andExpect(jsonPath("$.more", Is.is(true))).
+                andExpect(jsonPath("$.nextCursor", Is.is(beerDTO.getId().intValue())));
+        verify(beerDeltaSync, never()).changesSince(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de estatísticas for chamado, então os totais por tipo e por marca são retornados")
+    void whenGETStatsIsCalledThenTotalsByTypeAndBrandAreReturned() throws Exception {
+        // GIVEN
+        BeerStockStatsDTO lagerStats = new BeerStockStatsDTO("LAGER", 2L, 30L, 100L, 0.3);
+        BeerStockStatsDTO brandStats = new BeerStockStatsDTO("Ambev", 2L, 30L, 100L, 0.3);
+
+        // WHEN
+        when(beerStockStats.stats()).thenReturn(new BeerStatsDTO(List.of(lagerStats), List.of(brandStats)));
+
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/stats")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$.byType[0].name", Is.is("LAGER"))).
+                andExpect(jsonPath("$.byType[0].quantity", Is.is(30))).
+                andExpect(jsonPath("$.byBrand[0].name", Is.is("Ambev"))).
+                andExpect(jsonPath("$.byBrand[0].fillRatio", Is.is(0.3)));
+    }
+
+    @Test
+    @DisplayName("Quando o método POST de busca por nomes for chamado, então um resultado por nome é retornado")
+    void whenPOSTLookupIsCalledThenOneResultPerNameIsReturned() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        List<String> names = List.of(beerDTO.getName(), "Missing");
+
+        // WHEN
+        when(beerService.lookup(names)).thenReturn(List.of(
+                new BeerLookupDTO(beerDTO.getName(), true, beerDTO),
+                new BeerLookupDTO("Missing", false, null)));
+
+        // THEN
+        mockMvc.perform(post(BEER_API_URL_PATH.concat("/lookup"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new BeerLookupRequestDTO(names))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found", Is.is(true)))
+                .andExpect(jsonPath("$[0].beer.id", Is.is((int) VALID_BEER_ID)))
+                .andExpect(jsonPath("$[1].name", Is.is("Missing")))
+                .andExpect(jsonPath("$[1].found", Is.is(false)));
+    }
+
+    @Test
+    @DisplayName("Quando o método POST de busca por nomes for chamado com um nome em branco, então um status 400 é retornado")
+    void whenPOSTLookupIsCalledWithABlankNameThenBadRequestStatusIsReturned() throws Exception {
+        // THEN
+        mockMvc.perform(post(BEER_API_URL_PATH.concat("/lookup"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new BeerLookupRequestDTO(List.of(" ")))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de sugestões for chamado com um trecho do nome, então as cervejas mais parecidas são retornadas")
+    void whenGETTypeaheadIsCalledWithPartOfANameThenTheMostSimilarBeersAreReturned() throws Exception {
+        // GIVEN
+        BeerTypeaheadDTO suggestion = new BeerTypeaheadDTO(VALID_BEER_ID, "Brahma", "Ambev", 0.5);
+
+        // WHEN
+        when(beerService.typeahead("brah", 5)).thenReturn(List.of(suggestion));
+
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/typeahead")).
+                param("q", "brah").
+                param("limit", "5").
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$[0].id", Is.is((int) VALID_BEER_ID))).
+                andExpect(jsonPath("$[0].name", Is.is("Brahma"))).
+                andExpect(jsonPath("$[0].similarity", Is.is(0.5)));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de busca for chamado com filtros, então as cervejas encontradas são retornadas")
+    void whenGETSearchIsCalledWithFiltersThenMatchingBeersAreReturned() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerSearchDTO search = BeerSearchDTO.builder().type(BeerType.LAGER).brand("Ambev").minFillRatio(0.5).build();
+
+        // WHEN
+        when(beerService.search(search, null, 100, null)).thenReturn(new BeerPageDTO(List.of(beerDTO), null, null));
+
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/search?type=LAGER&brand=Ambev&minFillRatio=0.5")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$[0].name", Is.is(beerDTO.getName())));
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de busca for chamado com taxa de ocupação acima de 1, então um status de bad request é retornado")
+    void whenGETSearchIsCalledWithFillRatioAboveOneThenBadRequestStatusIsReturned() throws Exception {
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/search?minFillRatio=2")).
+                contentType(MediaType.APPLICATION_JSON)).
+                andExpect(status().isBadRequest());
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de alertas de estoque for chamado, então os alertas ativos são retornados")
+    void whenGETStockAlertsIsCalledThenActiveAlertsAreReturned() throws Exception {
+        // GIVEN
+        BeerStockAlertDTO alertDTO = BeerStockAlertDTO.builder()
+                .beerId(VALID_BEER_ID)
+                .name("Brahma")
+                .quantity(3)
+                .max(50)
+                .unit(StockThresholdUnit.UNITS)
+                .threshold(5)
+                .raisedAt(Instant.now())
+                .build();
+
+        // WHEN
+        when(beerStockAlerts.activeAlerts()).thenReturn(List.of(alertDTO));
+
+        // THEN
+        mockMvc.perform(get(BEER_API_URL_PATH.concat("/stock-alerts")).
                 contentType(MediaType.APPLICATION_JSON)).
-                andExpect(status().isOk());
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$[0].beerId", Is.is((int) VALID_BEER_ID))).
+                andExpect(jsonPath("$[0].quantity", Is.is(3))).
+                andExpect(jsonPath("$[0].threshold", Is.is(5)));
+    }
+
+    @Test
+    @DisplayName("Quando o método PUT de limite de estoque for chamado sem a histerese, então um status de bad request é retornado")
+    void whenPUTStockThresholdIsCalledWithoutHysteresisThenBadRequestStatusIsReturned() throws Exception {
+        // GIVEN
+        BeerStockThresholdDTO thresholdDTO = BeerStockThresholdDTO.builder()
+                .unit(StockThresholdUnit.PERCENT)
+                .threshold(20)
+                .build();
+
+        // THEN
+        mockMvc.perform(put(BEER_API_URL_PATH.concat("/" + VALID_BEER_ID + "/stock-threshold")).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(thresholdDTO))).
+                andExpect(status().isBadRequest());
+        verifyNoInteractions(beerStockAlerts);
+    }
+
+    @Test
+    @DisplayName("Quando o método GET de exportação for chamado, então as cervejas são transmitidas uma por linha")
+    void whenGETExportIsCalledThenBeersAreStreamedOnePerLine() throws Exception {
+        // GIVEN
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+        // WHEN
+        doAnswer(invocation -> {
+            Consumer<BeerDTO> consumer = invocation.getArgument(0);
+            consumer.accept(firstBeerDTO);
+            consumer.accept(secondBeerDTO);
+            return null;
+        }).when(beerService).exportAll(any());
+
+        MvcResult mvcResult = mockMvc.perform(get(BEER_API_URL_PATH.concat("/export"))).
+                andExpect(request().asyncStarted()).
+                andReturn();
+
+        // ASSERT
+        mockMvc.perform(asyncDispatch(mvcResult)).
+                andExpect(status().isOk()).
+                andExpect(header().string("Content-Type", BeerController.APPLICATION_NDJSON_VALUE)).
+                andExpect(content().string(asJsonString(firstBeerDTO) + "\n" + asJsonString(secondBeerDTO) + "\n"));
     }
 
     @Test
@@ -218,6 +618,88 @@ public class BeerControllerTest {
                 andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Quando o método PATCH for chamado com incremento negativo, então o status bad request é retornado")
+    void whenPATCHIsCalledToIncrementANegativeQuantityThenBadRequestStatusIsReturned() throws Exception {
+        // GIVEN
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(-500).build();
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat("/" + VALID_BEER_ID + BEER_API_SUB_PATH_INCREMENT_URL)).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(quantityDTO))).
+                andExpect(status().isBadRequest());
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    @DisplayName("Quando o método PATCH for chamado com If-Match, então o incremento é condicionado à versão informada")
+    void whenPATCHIsCalledWithIfMatchThenIncrementIsConditionalOnTheGivenVersion() throws Exception {
+        // GIVEN
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).version(4L).build().toBeerDTO();
+
+        // WHEN
+        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity(), 3L)).thenReturn(beerDTO);
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat("/" + VALID_BEER_ID + BEER_API_SUB_PATH_INCREMENT_URL)).
+                header(HttpHeaders.IF_MATCH, "\"1.3\"").
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(quantityDTO))).
+                andExpect(status().isOk()).
+                andExpect(header().string(HttpHeaders.ETAG, "\"1.4\"")).
+                andExpect(jsonPath("$.quantity", Is.is(beerDTO.getQuantity())));
+    }
+
+    @Test
+    @DisplayName("Quando o método PATCH for chamado com versão desatualizada, então o status precondition failed é retornado")
+    void whenPATCHIsCalledWithStaleVersionThenPreconditionFailedIsReturned() throws Exception {
+        // GIVEN
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+
+        // WHEN
+        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity(), 2L)).thenThrow(BeerVersionMismatchException.class);
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat("/" + VALID_BEER_ID + BEER_API_SUB_PATH_DECREMENT_URL)).
+                header(HttpHeaders.IF_MATCH, "\"1.2\"").
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(quantityDTO))).
+                andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("Quando o método PATCH for chamado com ETag de outra cerveja, então o status precondition failed é retornado")
+    void whenPATCHIsCalledWithETagOfAnotherBeerThenPreconditionFailedIsReturned() throws Exception {
+        // GIVEN
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat("/" + VALID_BEER_ID + BEER_API_SUB_PATH_INCREMENT_URL)).
+                header(HttpHeaders.IF_MATCH, "\"2.3\"").
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(quantityDTO))).
+                andExpect(status().isPreconditionFailed());
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    @DisplayName("Quando o método PATCH for chamado e o estoque seguir em conflito, então o status conflict é retornado")
+    void whenPATCHIsCalledAndStockStaysInConflictThenConflictStatusIsReturned() throws Exception {
+        // GIVEN
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+
+        // WHEN
+        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockConflictException.class);
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat("/" + VALID_BEER_ID + BEER_API_SUB_PATH_INCREMENT_URL)).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(quantityDTO))).
+                andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("Quando o método PATH for chamado para diminuir o desconto, então o status ok é retornado")
     void whenPATCHIsCalledToDecrementDiscountThenOkStatusIsReturned() throws Exception {
@@ -270,4 +752,43 @@ public class BeerControllerTest {
                 .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("Quando o método PATCH de ajuste de estoque em lote for chamado, então o resultado de cada ajuste é retornado")
+    void whenPATCHIsCalledToAdjustStockInBatchThenEachResultIsReturned() throws Exception {
+        // GIVEN
+        StockAdjustmentDTO adjustment = StockAdjustmentDTO.builder().id(VALID_BEER_ID).quantity(10).build();
+        StockAdjustmentRequestDTO request = StockAdjustmentRequestDTO.builder().adjustments(List.of(adjustment)).build();
+        StockAdjustmentResultDTO result = StockAdjustmentResultDTO.builder()
+                .id(VALID_BEER_ID).quantity(10).status(StockAdjustmentStatus.APPLIED).stock(20).build();
+
+        // WHEN
+        when(beerService.adjustStock(request.getAdjustments(), false)).thenReturn(List.of(result));
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat(BEER_API_SUB_PATH_STOCK_URL)).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(request))).
+                andExpect(status().isOk()).
+                andExpect(jsonPath("$[0].id", Is.is((int) VALID_BEER_ID))).
+                andExpect(jsonPath("$[0].status", Is.is(StockAdjustmentStatus.APPLIED.toString()))).
+                andExpect(jsonPath("$[0].stock", Is.is(20)));
+    }
+
+    @Test
+    @DisplayName("Quando o método PATCH de ajuste de estoque em lote exceder o estoque, então o status bad request é retornado")
+    void whenPATCHIsCalledToAdjustStockInBatchBeyondMaxThenBadRequestStatusIsReturned() throws Exception {
+        // GIVEN
+        StockAdjustmentDTO adjustment = StockAdjustmentDTO.builder().id(VALID_BEER_ID).quantity(80).build();
+        StockAdjustmentRequestDTO request = StockAdjustmentRequestDTO.builder().adjustments(List.of(adjustment)).build();
+
+        // WHEN
+        when(beerService.adjustStock(request.getAdjustments(), false)).thenThrow(BeerStockExceededException.class);
+
+        // ASSERT
+        mockMvc.perform(patch(BEER_API_URL_PATH.concat(BEER_API_SUB_PATH_STOCK_URL)).
+                contentType(MediaType.APPLICATION_JSON).
+                content(asJsonString(request))).
+                andExpect(status().isBadRequest());
+    }
 }
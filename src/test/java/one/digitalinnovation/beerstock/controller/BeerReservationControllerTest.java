@@ -0,0 +1,149 @@
+package one.digitalinnovation.beerstock.controller;
+
+import one.digitalinnovation.beerstock.dto.BeerReservationDTO;
+import one.digitalinnovation.beerstock.dto.BeerReservationRequestDTO;
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+import one.digitalinnovation.beerstock.exception.BeerReservationNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerReservationSettledException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.service.BeerReservationService;
+import org.hamcrest.core.Is;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
+
+import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários em BeerReservationController")
+public class BeerReservationControllerTest {
+
+    private static final String RESERVATIONS_API_URL_PATH = "/api/v1/beers/1/reservations";
+    private static final long VALID_BEER_ID = 1L;
+    private static final long VALID_RESERVATION_ID = 7L;
+    private static final long INVALID_RESERVATION_ID = 8L;
+
+    MockMvc mockMvc;
+
+    @Mock
+    private BeerReservationService beerReservationService;
+
+    @InjectMocks
+    private BeerReservationController beerReservationController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(beerReservationController)
+                .setViewResolvers((s, locale) -> new MappingJackson2JsonView()).build();
+    }
+
+    @Test
+    @DisplayName("Quando o método POST for chamado, então o estoque deverá ser reservado")
+    void whenPOSTIsCalledThenStockIsReserved() throws Exception {
+        // GIVEN
+        BeerReservationRequestDTO reservationRequestDTO = BeerReservationRequestDTO.builder().quantity(5).build();
+        BeerReservationDTO reservationDTO = reservation(ReservationStatus.HELD);
+
+        // WHEN
+        when(beerReservationService.reserve(VALID_BEER_ID, 5)).thenReturn(reservationDTO);
+
+        // THEN
+        mockMvc.perform(post(RESERVATIONS_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(reservationRequestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", Is.is((int) VALID_RESERVATION_ID)))
+                .andExpect(jsonPath("$.status", Is.is(ReservationStatus.HELD.name())));
+    }
+
+    @Test
+    @DisplayName("Quando o método POST for chamado sem estoque disponível, então o status bad request é retornado")
+    void whenPOSTIsCalledWithoutAvailableStockThenBadRequestStatusIsReturned() throws Exception {
+        // GIVEN
+        BeerReservationRequestDTO reservationRequestDTO = BeerReservationRequestDTO.builder().quantity(5).build();
+
+        // WHEN
+        when(beerReservationService.reserve(VALID_BEER_ID, 5)).thenThrow(new BeerStockExceededException(VALID_BEER_ID, 5));
+
+        // THEN
+        mockMvc.perform(post(RESERVATIONS_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(reservationRequestDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Quando o método POST for chamado com quantidade negativa, então o status bad request é retornado")
+    void whenPOSTIsCalledWithNegativeQuantityThenBadRequestStatusIsReturned() throws Exception {
+        // GIVEN
+        BeerReservationRequestDTO reservationRequestDTO = BeerReservationRequestDTO.builder().quantity(-5).build();
+
+        // THEN
+        mockMvc.perform(post(RESERVATIONS_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(reservationRequestDTO)))
+                .andExpect(status().isBadRequest());
+        verify(beerReservationService, never()).reserve(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Quando a confirmação for chamada, então a reserva confirmada é retornada")
+    void whenConfirmIsCalledThenConfirmedReservationIsReturned() throws Exception {
+        // WHEN
+        when(beerReservationService.confirm(VALID_BEER_ID, VALID_RESERVATION_ID)).thenReturn(reservation(ReservationStatus.CONFIRMED));
+
+        // THEN
+        mockMvc.perform(post(RESERVATIONS_API_URL_PATH + "/" + VALID_RESERVATION_ID + "/confirm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", Is.is(ReservationStatus.CONFIRMED.name())));
+    }
+
+    @Test
+    @DisplayName("Quando o cancelamento for chamado para uma reserva já encerrada, então o status conflict é retornado")
+    void whenCancelIsCalledForSettledReservationThenConflictStatusIsReturned() throws Exception {
+        // WHEN
+        when(beerReservationService.cancel(VALID_BEER_ID, VALID_RESERVATION_ID))
+                .thenThrow(new BeerReservationSettledException(VALID_RESERVATION_ID, ReservationStatus.EXPIRED));
+
+        // THEN
+        mockMvc.perform(post(RESERVATIONS_API_URL_PATH + "/" + VALID_RESERVATION_ID + "/cancel"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Quando a confirmação for chamada com reserva inválida, então o status not found é retornado")
+    void whenConfirmIsCalledWithInvalidReservationThenNotFoundStatusIsReturned() throws Exception {
+        // WHEN
+        when(beerReservationService.confirm(VALID_BEER_ID, INVALID_RESERVATION_ID))
+                .thenThrow(new BeerReservationNotFoundException(VALID_BEER_ID, INVALID_RESERVATION_ID));
+
+        // THEN
+        mockMvc.perform(post(RESERVATIONS_API_URL_PATH + "/" + INVALID_RESERVATION_ID + "/confirm"))
+                .andExpect(status().isNotFound());
+    }
+
+    private BeerReservationDTO reservation(ReservationStatus status) {
+        return BeerReservationDTO.builder()
+                .id(VALID_RESERVATION_ID)
+                .beerId(VALID_BEER_ID)
+                .quantity(5)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-statistics;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@DisplayName("Teste da criação de cervejas em lote")
+public class BeerBulkCreationTest {
+
+    private static final int CATALOG_SIZE = 500;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando o catálogo é criado em lote, então deve usar uma fração dos comandos da criação individual")
+    void whenCatalogIsCreatedInBulkThenItUsesAFractionOfTheSingleCreateStatements() throws Exception {
+        // GIVEN
+        List<BeerDTO> singleCatalog = buildCatalog("Single");
+        List<BeerDTO> bulkCatalog = buildCatalog("Bulk");
+
+        // WHEN
+        statistics.clear();
+        for (BeerDTO beerDTO : singleCatalog) {
+            beerService.createBeer(beerDTO);
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<BeerDTO> createdBeers = beerService.createBeers(bulkCatalog);
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        // THEN
+        assertThat(createdBeers.size(), equalTo(CATALOG_SIZE));
+        assertThat(beerRepository.count(), equalTo((long) CATALOG_SIZE * 2));
+        assertThat(bulkStatements * 10, lessThan(singleStatements));
+    }
+
+    private List<BeerDTO> buildCatalog(String prefix) {
+        return IntStream.range(0, CATALOG_SIZE)
+                .mapToObj(i -> BeerDTO.builder()
+                        .name(prefix + " Beer " + i)
+                        .brand("Ambev")
+                        .max(100)
+                        .quantity(10)
+                        .type(BeerType.LAGER)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
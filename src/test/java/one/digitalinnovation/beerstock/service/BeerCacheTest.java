@@ -0,0 +1,128 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.config.CacheConfig;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@DisplayName("Teste do cache de cervejas por nome")
+public class BeerCacheTest {
+
+    private static final String BEER_NAME = "Cached Lager";
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache beersByNameCache;
+
+    private BeerDTO beerDTO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        beersByNameCache = cacheManager.getCache(CacheConfig.BEERS_BY_NAME_CACHE);
+        beerDTO = beerService.createBeer(BeerDTO.builder()
+                .name(BEER_NAME)
+                .brand("Ambev")
+                .max(50)
+                .quantity(10)
+                .type(BeerType.LAGER)
+                .build());
+        beersByNameCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.findByName(BEER_NAME).ifPresent(beerRepository::delete);
+        beersByNameCache.clear();
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja é buscada duas vezes, então a segunda busca deve ser atendida pelo cache")
+    void whenBeerIsFoundTwiceThenSecondLookupIsACacheHit() throws BeerNotFoundException {
+        // GIVEN
+        double hitsBefore = cacheGets("hit");
+
+        // WHEN
+        beerService.findByName(BEER_NAME);
+        BeerDTO cachedBeerDTO = beerService.findByName(BEER_NAME);
+
+        // THEN
+        assertThat(cachedBeerDTO, is(equalTo(beerDTO)));
+        assertThat(cacheGets("hit") - hitsBefore, is(equalTo(1.0)));
+    }
+
+    @Test
+    @DisplayName("Quando o estoque é alterado, então o cache deve refletir a nova quantidade")
+    void whenStockChangesThenCacheReflectsTheNewQuantity() throws Exception {
+        // GIVEN
+        beerService.findByName(BEER_NAME);
+
+        // WHEN
+        beerService.increment(beerDTO.getId(), 5);
+        beerService.decrement(beerDTO.getId(), 2);
+
+        // THEN
+        assertThat(beerService.findByName(BEER_NAME).getQuantity(), is(equalTo(beerDTO.getQuantity() + 3)));
+    }
+
+    @Test
+    @DisplayName("Quando o estoque é alterado, então a cerveja deve sair do cache em vez de ser substituída")
+    void whenStockChangesThenBeerIsEvictedInsteadOfReplaced() throws Exception {
+        // GIVEN
+        beerService.findByName(BEER_NAME);
+
+        // WHEN
+        beerService.increment(beerDTO.getId(), 5);
+
+        // THEN
+        assertThat(beersByNameCache.get(BEER_NAME), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja é excluída, então ela deve sair do cache")
+    void whenBeerIsDeletedThenItIsEvictedFromCache() throws BeerNotFoundException {
+        // GIVEN
+        beerService.findByName(BEER_NAME);
+
+        // WHEN
+        beerService.deleteById(beerDTO.getId());
+
+        // THEN
+        assertThat(beersByNameCache.get(BEER_NAME), is(nullValue()));
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(BEER_NAME));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.BEERS_BY_NAME_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,167 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.controller.BeerController;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-changes;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.change-feed.capacity=8",
+        "beerstock.change-feed.timeout=45s"})
+@AutoConfigureMockMvc
+@DisplayName("Teste do feed de alterações de cervejas")
+public class BeerChangeFeedTest {
+
+    private static final String CHANGES_URL = "/api/v1/beers/changes";
+    private static final Pattern LAST_EVENT_ID = Pattern.compile("(?s).*id:(\\S+)");
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando cervejas são criadas e movimentadas, então o feed deve enviar um evento por alteração")
+    void whenBeersAreCreatedAndChangedThenTheFeedSendsOneEventPerChange() throws Exception {
+        // GIVEN
+        MvcResult feed = subscribe(null);
+
+        // WHEN
+        BeerDTO beerDTO = beerService.createBeer(beer("Feed Lager"));
+        beerService.increment(beerDTO.getId(), 3);
+        beerService.deleteById(beerDTO.getId());
+
+        // THEN
+        String events = awaitContent(feed, "event:DELETED");
+        assertThat(events, containsString("event:CREATED"));
+        assertThat(events, containsString("event:STOCK_CHANGED"));
+        assertThat(events, containsString("\"quantity\":3"));
+    }
+
+    @Test
+    @DisplayName("Quando o cliente reconecta com Last-Event-ID, então deve receber somente as alterações seguintes")
+    void whenClientResumesWithLastEventIdThenItReceivesOnlyLaterChanges() throws Exception {
+        // GIVEN
+        MvcResult feed = subscribe(null);
+        beerService.createBeer(beer("Feed Stout"));
+        String lastEventId = lastEventId(awaitContent(feed, "Feed Stout"));
+
+        // WHEN
+        beerService.createBeer(beer("Feed Weiss"));
+        MvcResult resumedFeed = subscribe(lastEventId);
+
+        // THEN
+        String events = awaitContent(resumedFeed, "Feed Weiss");
+        assertThat(events, not(containsString("Feed Stout")));
+        assertThat(events, not(containsString("event:gap")));
+    }
+
+    @Test
+    @DisplayName("Quando o cliente reconecta depois que o buffer foi sobrescrito, então deve receber um evento de lacuna")
+    void whenClientResumesAfterTheRingWasOverwrittenThenItReceivesAGapEvent() throws Exception {
+        // GIVEN
+        MvcResult feed = subscribe(null);
+        beerService.createBeer(beer("Feed Ale"));
+        String lastEventId = lastEventId(awaitContent(feed, "Feed Ale"));
+        long lastSequence = Long.parseLong(lastEventId.substring(lastEventId.indexOf('-') + 1));
+
+        // WHEN
+        for (int i = 0; i < 10; i++) {
+            beerService.createBeer(beer("Feed Ipa " + i));
+        }
+        MvcResult resumedFeed = subscribe(lastEventId);
+
+        // THEN
+        String events = awaitContent(resumedFeed, "Feed Ipa 9\"");
+        assertThat(events, containsString("event:gap"));
+        assertThat(events, containsString("\"fromSequence\":" + (lastSequence + 1) + ",\"toSequence\":" + (lastSequence + 2)));
+        assertThat(events, not(containsString("Feed Ipa 1\"")));
+    }
+
+    @Test
+    @DisplayName("Quando o cliente reconecta com um id de antes do reinício, então deve receber uma lacuna de tamanho desconhecido")
+    void whenClientResumesWithAnIdFromBeforeARestartThenItReceivesAnOpenGap() throws Exception {
+        // WHEN
+        MvcResult feed = subscribe("previous-boot-42");
+
+        // THEN
+        assertThat(awaitContent(feed, "\"fromSequence\":null"), containsString("event:gap"));
+    }
+
+    @Test
+    @DisplayName("Quando o cliente se inscreve, então a conexão deve expirar no tempo configurado")
+    void whenClientSubscribesThenTheConnectionExpiresAtTheConfiguredTimeout() throws Exception {
+        // WHEN
+        MvcResult feed = subscribe(null);
+
+        // THEN
+        assertThat(feed.getRequest().getAsyncContext().getTimeout(), equalTo(45_000L));
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get(CHANGES_URL);
+        if (lastEventId != null) {
+            request.header(BeerController.LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private String awaitContent(MvcResult feed, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String content = feed.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+            content = feed.getResponse().getContentAsString();
+        }
+        assertThat(content, containsString(expected));
+        return content;
+    }
+
+    private String lastEventId(String events) {
+        Matcher matcher = LAST_EVENT_ID.matcher(events);
+        assertThat(matcher.lookingAt() ? "found" : events, containsString("found"));
+        return matcher.group(1);
+    }
+
+    private BeerDTO beer(String name) {
+        return BeerDTO.builder()
+                .name(name)
+                .brand("Ambev")
+                .max(50)
+                .quantity(0)
+                .type(BeerType.LAGER)
+                .build();
+    }
+}
@@ -0,0 +1,266 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerDeltaDTO;
+import one.digitalinnovation.beerstock.dto.BeerTombstoneDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-delta-sync;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.delta-sync.tombstone-retention=0s"})
+@DisplayName("Teste da sincronização incremental do catálogo de cervejas")
+public class BeerDeltaSyncTest {
+
+    private static final int MAX_STOCK = 100;
+    private static final int LIMIT = 100;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerDeltaSync beerDeltaSync;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerStockShardRepository beerStockShardRepository;
+
+    @Autowired
+    private BeerTombstoneRepository beerTombstoneRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        beerTombstoneRepository.deleteAllInBatch();
+        beerStockShardRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando cervejas mudam e são removidas, então somente as alteradas e as removidas devem ser retornadas")
+    void whenBeersChangeAndAreDeletedThenOnlyChangedBeersAndTombstonesAreReturned() throws Exception {
+        // GIVEN
+        createBeer("Delta Lager");
+        BeerDTO changedBeer = createBeer("Delta Stout");
+        BeerDTO deletedBeer = createBeer("Delta Weiss");
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+
+        // WHEN
+        beerService.increment(changedBeer.getId(), 5);
+        beerService.deleteById(deletedBeer.getId());
+        BeerDeltaDTO delta = beerDeltaSync.changesSince(since, LIMIT);
+
+        // THEN
+        assertThat(delta.isSnapshot(), is(false));
+        assertThat(delta.getSequence(), greaterThan(since));
+        assertThat(names(delta), contains("Delta Stout"));
+        assertThat(delta.getUpserts().get(0).getQuantity(), equalTo(5));
+        assertThat(delta.getTombstones().stream().map(BeerTombstoneDTO::getId).collect(Collectors.toList()), contains(deletedBeer.getId()));
+    }
+
+    @Test
+    @DisplayName("Quando nada mudou desde a sequência informada, então o delta deve vir vazio")
+    void whenNothingChangedSinceTheSequenceThenDeltaIsEmpty() throws Exception {
+        // GIVEN
+        createBeer("Quiet Lager");
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+
+        // WHEN
+        BeerDeltaDTO delta = beerDeltaSync.changesSince(since, LIMIT);
+
+        // THEN
+        assertThat(delta.isSnapshot(), is(false));
+        assertThat(delta.getSequence(), equalTo(since));
+        assertThat(delta.getUpserts(), is(empty()));
+        assertThat(delta.getTombstones(), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Quando uma mudança ainda não foi confirmada, então a sequência retornada deve parar antes dela")
+    void whenChangeIsNotCommittedYetThenReturnedSequenceStopsBeforeIt() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Pending Lager");
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+
+        // WHEN
+        BeerDeltaDTO deltaBeforeCommit = new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                beerService.increment(beerDTO.getId(), 1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return beerDeltaSync.changesSince(since, LIMIT);
+        });
+        BeerDeltaDTO deltaAfterCommit = beerDeltaSync.changesSince(since, LIMIT);
+
+        // THEN
+        assertThat(deltaBeforeCommit.getSequence(), equalTo(since));
+        assertThat(deltaBeforeCommit.getUpserts(), is(empty()));
+        assertThat(names(deltaAfterCommit), contains("Pending Lager"));
+    }
+
+    @Test
+    @DisplayName("Quando o estoque de uma cerveja fragmentada muda, então ela deve aparecer no delta")
+    void whenShardedStockChangesThenBeerIsInTheDelta() throws Exception {
+        // GIVEN
+        createBeer("Quiet Stout");
+        BeerDTO beerDTO = createBeer("Sharded Lager");
+        beerService.reshardStock(beerDTO.getId(), 4);
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+
+        // WHEN
+        beerService.increment(beerDTO.getId(), 3);
+        BeerDeltaDTO delta = beerDeltaSync.changesSince(since, LIMIT);
+
+        // THEN
+        assertThat(names(delta), contains("Sharded Lager"));
+        assertThat(delta.getUpserts().get(0).getQuantity(), equalTo(3));
+    }
+
+    @Test
+    @DisplayName("Quando a réplica está atrás das remoções já expurgadas, então o catálogo completo deve ser retornado")
+    void whenReplicaIsBehindPurgedTombstonesThenSnapshotIsReturned() throws Exception {
+        // GIVEN
+        BeerDTO keptBeer = createBeer("Kept Lager");
+        BeerDTO firstDeleted = createBeer("Purged Stout");
+        BeerDTO lastDeleted = createBeer("Purged Weiss");
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+        beerService.deleteById(firstDeleted.getId());
+        beerService.deleteById(lastDeleted.getId());
+        TimeUnit.MILLISECONDS.sleep(10);
+
+        // WHEN
+        int purged = beerDeltaSync.purgeTombstones();
+        BeerDeltaDTO delta = beerDeltaSync.changesSince(since, LIMIT);
+
+        // THEN
+        assertThat(purged, equalTo(1));
+        assertThat(beerTombstoneRepository.count(), equalTo(1L));
+        assertThat(beerDeltaSync.horizon(), greaterThanOrEqualTo(since));
+        assertThat(delta.isSnapshot(), is(true));
+        assertThat(names(delta), contains(keptBeer.getName()));
+        assertThat(delta.getTombstones(), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Quando a réplica informa uma sequência à frente do servidor, então o catálogo completo deve ser retornado")
+    void whenReplicaIsAheadOfTheServerThenSnapshotIsReturned() throws Exception {
+        // GIVEN
+        createBeer("Reset Lager");
+        long current = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+
+        // WHEN
+        BeerDeltaDTO delta = beerDeltaSync.changesSince(current + 1_000, LIMIT);
+
+        // THEN
+        assertThat(delta.isSnapshot(), is(true));
+        assertThat(delta.getSequence(), equalTo(current));
+        assertThat(names(delta), contains("Reset Lager"));
+    }
+
+    @Test
+    @DisplayName("Quando há mais mudanças que o limite, então o delta deve ser lido em páginas pela sequência")
+    void whenThereAreMoreChangesThanTheLimitThenDeltaIsPagedBySequence() throws Exception {
+        // GIVEN
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+        createBeer("Paged Lager");
+        createBeer("Paged Stout");
+        createBeer("Paged Weiss");
+
+        // WHEN
+        BeerDeltaDTO firstPage = beerDeltaSync.changesSince(since, 2);
+        BeerDeltaDTO lastPage = beerDeltaSync.changesSince(firstPage.getSequence(), 2);
+
+        // THEN
+        assertThat(firstPage.isMore(), is(true));
+        assertThat(names(firstPage), contains("Paged Lager", "Paged Stout"));
+        assertThat(lastPage.isMore(), is(false));
+        assertThat(names(lastPage), contains("Paged Weiss"));
+    }
+
+    @Test
+    @DisplayName("Quando cervejas são criadas em lote, então o delta ainda deve respeitar o limite")
+    void whenBeersAreCreatedInBulkThenDeltaStillHonoursTheLimit() throws Exception {
+        // GIVEN
+        long since = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+        beerService.createBeers(List.of(beer("Bulk Lager"), beer("Bulk Stout"), beer("Bulk Weiss")));
+
+        // WHEN
+        BeerDeltaDTO firstPage = beerDeltaSync.changesSince(since, 2);
+        BeerDeltaDTO lastPage = beerDeltaSync.changesSince(firstPage.getSequence(), 2);
+
+        // THEN
+        assertThat(firstPage.isMore(), is(true));
+        assertThat(names(firstPage), contains("Bulk Lager", "Bulk Stout"));
+        assertThat(lastPage.isMore(), is(false));
+        assertThat(names(lastPage), contains("Bulk Weiss"));
+    }
+
+    @Test
+    @DisplayName("Quando o catálogo completo passa do limite, então ele deve ser lido em páginas pelo id")
+    void whenSnapshotIsLargerThanTheLimitThenItIsPagedById() throws Exception {
+        // GIVEN
+        createBeer("Snapshot Lager");
+        createBeer("Snapshot Stout");
+        createBeer("Snapshot Weiss");
+        long current = beerDeltaSync.changesSince(beerDeltaSync.horizon(), LIMIT).getSequence();
+
+        // WHEN
+        BeerDeltaDTO firstPage = beerDeltaSync.changesSince(current + 1_000, 2);
+        BeerDeltaDTO lastPage = beerDeltaSync.snapshotAfter(firstPage.getSequence(), firstPage.getNextCursor(), 2);
+
+        // THEN
+        assertThat(firstPage.isSnapshot(), is(true));
+        assertThat(firstPage.getSequence(), equalTo(current));
+        assertThat(firstPage.isMore(), is(true));
+        assertThat(names(firstPage), contains("Snapshot Lager", "Snapshot Stout"));
+        assertThat(lastPage.isSnapshot(), is(true));
+        assertThat(lastPage.getSequence(), equalTo(current));
+        assertThat(lastPage.getNextCursor(), is(nullValue()));
+        assertThat(names(lastPage), contains("Snapshot Weiss"));
+    }
+
+    private List<String> names(BeerDeltaDTO delta) {
+        return delta.getUpserts().stream().map(BeerDTO::getName).collect(Collectors.toList());
+    }
+
+    private BeerDTO createBeer(String name) throws Exception {
+        return beerService.createBeer(beer(name));
+    }
+
+    private BeerDTO beer(String name) {
+        return BeerDTO.builder()
+                .name(name)
+                .brand("Ambev")
+                .max(MAX_STOCK)
+                .quantity(0)
+                .type(BeerType.LAGER)
+                .build();
+    }
+}
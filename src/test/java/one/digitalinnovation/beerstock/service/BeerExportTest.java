@@ -0,0 +1,73 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-statistics;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@DisplayName("Teste da exportação em streaming de cervejas")
+public class BeerExportTest {
+
+    private static final int CATALOG_SIZE = BeerRepository.EXPORT_FETCH_SIZE * 4;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando o catálogo é exportado, então o contexto de persistência não deve crescer com o número de cervejas")
+    void whenCatalogIsExportedThenPersistenceContextDoesNotGrowWithTheCatalog() throws Exception {
+        // GIVEN
+        List<BeerDTO> catalog = IntStream.range(0, CATALOG_SIZE)
+                .mapToObj(i -> BeerDTO.builder()
+                        .name("Export Beer " + i)
+                        .brand("Ambev")
+                        .max(100)
+                        .quantity(10)
+                        .type(BeerType.LAGER)
+                        .build())
+                .collect(Collectors.toList());
+        beerService.createBeers(catalog);
+        AtomicInteger exportedBeers = new AtomicInteger();
+        AtomicInteger largestPersistenceContext = new AtomicInteger();
+
+        // WHEN
+        beerService.exportAll(beerDTO -> {
+            exportedBeers.incrementAndGet();
+            int managedEntities = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            largestPersistenceContext.accumulateAndGet(managedEntities, Math::max);
+        });
+
+        // THEN
+        assertThat(exportedBeers.get(), equalTo(CATALOG_SIZE));
+        assertThat(largestPersistenceContext.get(), lessThanOrEqualTo(1));
+    }
+}
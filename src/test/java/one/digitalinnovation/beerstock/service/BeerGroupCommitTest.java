@@ -0,0 +1,89 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-group-commit;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.group-commit.enabled=true",
+        "beerstock.group-commit.window=5ms"})
+@DisplayName("Teste do group commit no estoque de cervejas")
+public class BeerGroupCommitTest {
+
+    private static final int THREADS = 16;
+    private static final int MAX_STOCK = 200;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads incrementam além do máximo, então nenhuma atualização deve ser perdida e o excesso deve falhar")
+    void whenManyThreadsIncrementBeyondMaxThenNoUpdateIsLostAndTheExcessFails() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = beerService.createBeer(BeerDTO.builder()
+                .name("Group Commit Weiss")
+                .brand("Ambev")
+                .max(MAX_STOCK)
+                .quantity(0)
+                .type(BeerType.WEISS)
+                .build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // WHEN
+        try {
+            for (int i = 0; i < MAX_STOCK + 50; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        beerService.increment(beerDTO.getId(), 1);
+                        return true;
+                    } catch (BeerStockExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            long accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            // THEN
+            long updates = meterRegistry.get("beerstock.stock.group.commit.size").summary().count();
+            assertThat(accepted, equalTo((long) MAX_STOCK));
+            assertThat(beerRepository.findById(beerDTO.getId()).orElseThrow().getQuantity(), equalTo(MAX_STOCK));
+            assertThat(updates, lessThan((long) MAX_STOCK + 50));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Teste Unitário em BeerLookupCoalescer")
+public class BeerLookupCoalescerTest {
+
+    private static final int CONCURRENT_CALLERS = 8;
+
+    private MeterRegistry meterRegistry;
+
+    private BeerLookupCoalescer beerLookupCoalescer;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beerLookupCoalescer = new BeerLookupCoalescer(meterRegistry);
+        executor = Executors.newFixedThreadPool(CONCURRENT_CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Quando chamadas concorrentes buscam o mesmo nome, então o repositório deve ser consultado uma única vez")
+    void whenConcurrentCallersLookUpTheSameNameThenLoaderRunsOnce() throws Exception {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // WHEN
+        List<Future<Optional<BeerDTO>>> results = lookupConcurrently(expectedBeerDTO.getName(), name -> {
+            loaderCalls.incrementAndGet();
+            awaitQuietly(release);
+            return Optional.of(expectedBeerDTO);
+        });
+        awaitCoalesced(CONCURRENT_CALLERS - 1);
+        release.countDown();
+
+        // THEN
+        List<BeerDTO> foundBeers = new ArrayList<>();
+        for (Future<Optional<BeerDTO>> result : results) {
+            foundBeers.add(result.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        assertThat(loaderCalls.get(), is(equalTo(1)));
+        assertThat(foundBeers, everyItem(sameInstance(expectedBeerDTO)));
+        assertThat(lookups("executed"), is(equalTo(1.0)));
+        assertThat(lookups("coalesced"), is(equalTo((double) CONCURRENT_CALLERS - 1)));
+    }
+
+    @Test
+    @DisplayName("Quando a busca em andamento não encontra a cerveja, então todas as chamadas devem compartilhar o resultado vazio")
+    void whenInFlightLookupFindsNothingThenAllCallersShareTheEmptyResult() throws Exception {
+        // GIVEN
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // WHEN
+        List<Future<Optional<BeerDTO>>> results = lookupConcurrently("Unknown", name -> {
+            loaderCalls.incrementAndGet();
+            awaitQuietly(release);
+            return Optional.empty();
+        });
+        awaitCoalesced(CONCURRENT_CALLERS - 1);
+        release.countDown();
+
+        // THEN
+        for (Future<Optional<BeerDTO>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).isPresent(), is(false));
+        }
+        assertThat(loaderCalls.get(), is(equalTo(1)));
+    }
+
+    @Test
+    @DisplayName("Quando a busca falha, então a exceção deve ser propagada e a próxima busca deve consultar novamente")
+    void whenLookupFailsThenExceptionIsPropagatedAndNextLookupRunsAgain() {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // THEN
+        assertThrows(IllegalStateException.class, () -> beerLookupCoalescer.lookup(expectedBeerDTO.getName(), name -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertThat(beerLookupCoalescer.lookup(expectedBeerDTO.getName(), name -> Optional.of(expectedBeerDTO)).orElseThrow(),
+                is(sameInstance(expectedBeerDTO)));
+    }
+
+    private List<Future<Optional<BeerDTO>>> lookupConcurrently(String name, Function<String, Optional<BeerDTO>> loader) {
+        List<Future<Optional<BeerDTO>>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLERS; i++) {
+            results.add(executor.submit(() -> beerLookupCoalescer.lookup(name, loader)));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(int expectedCoalesced) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lookups("coalesced") < expectedCoalesced && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("beerstock.lookup.requests").tag("result", result).counter().count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+@DisplayName("Teste Unitário em BeerNameFilter")
+public class BeerNameFilterTest {
+
+    private static final int EXPECTED_INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private MeterRegistry meterRegistry;
+
+    private BeerNameFilter beerNameFilter;
+
+    @BeforeEach
+    void setUp() {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getNameFilter().setExpectedInsertions(EXPECTED_INSERTIONS);
+        properties.getNameFilter().setFalsePositiveProbability(FALSE_POSITIVE_PROBABILITY);
+        meterRegistry = new SimpleMeterRegistry();
+        beerNameFilter = new BeerNameFilter(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Quando o filtro ainda não foi carregado, então todo nome pode estar cadastrado")
+    void whenFilterIsNotPopulatedThenEveryNameMightBeRegistered() {
+        assertThat(beerNameFilter.mightContain("Brahma"), is(true));
+    }
+
+    @Test
+    @DisplayName("Quando os nomes são carregados, então nenhum nome cadastrado deve ser descartado")
+    void whenNamesArePopulatedThenNoRegisteredNameIsRuledOut() {
+        // WHEN
+        beerNameFilter.populate(IntStream.range(0, EXPECTED_INSERTIONS).mapToObj(i -> "Beer " + i));
+
+        // THEN
+        assertThat(IntStream.range(0, EXPECTED_INSERTIONS).allMatch(i -> beerNameFilter.mightContain("Beer " + i)), is(true));
+    }
+
+    @Test
+    @DisplayName("Quando o filtro está cheio, então a taxa de falsos positivos deve ficar próxima da configurada")
+    void whenFilterIsFullThenFalsePositiveRateStaysNearTheConfiguredOne() {
+        // GIVEN
+        beerNameFilter.populate(IntStream.range(0, EXPECTED_INSERTIONS).mapToObj(i -> "Beer " + i));
+
+        // WHEN
+        long falsePositives = IntStream.range(0, EXPECTED_INSERTIONS)
+                .filter(i -> beerNameFilter.mightContain("Unknown " + i))
+                .count();
+
+        // THEN
+        assertThat((double) falsePositives / EXPECTED_INSERTIONS, lessThan(FALSE_POSITIVE_PROBABILITY * 2));
+        assertThat(beerNameFilter.estimatedFalsePositiveProbability(), closeTo(FALSE_POSITIVE_PROBABILITY, 0.002));
+        assertThat(meterRegistry.get("beerstock.name.filter.memory").gauge().value(), is(equalTo((double) beerNameFilter.memoryBytes())));
+    }
+
+    @Test
+    @DisplayName("Quando um nome é removido, então ele deve ser descartado pelo filtro")
+    void whenNameIsRemovedThenItIsRuledOut() {
+        // GIVEN
+        beerNameFilter.populate(Stream.of("Brahma", "Skol"));
+
+        // WHEN
+        beerNameFilter.remove("Brahma");
+
+        // THEN
+        assertThat(beerNameFilter.mightContain("Brahma"), is(false));
+        assertThat(beerNameFilter.mightContain("Skol"), is(true));
+    }
+
+    @Test
+    @DisplayName("Quando a exclusão de uma cerveja é confirmada, então o nome dela deve ser descartado pelo filtro")
+    void whenBeerDeletionIsCommittedThenItsNameIsRuledOut() {
+        // GIVEN
+        beerNameFilter.populate(Stream.of("Brahma", "Skol"));
+
+        // WHEN
+        beerNameFilter.onBeerChange(new BeerChangeEvent(BeerChangeType.STOCK_CHANGED, BeerDTO.builder().name("Skol").build()));
+        beerNameFilter.onBeerChange(new BeerChangeEvent(BeerChangeType.DELETED, BeerDTO.builder().name("Brahma").build()));
+
+        // THEN
+        assertThat(beerNameFilter.mightContain("Brahma"), is(false));
+        assertThat(beerNameFilter.mightContain("Skol"), is(true));
+    }
+}
@@ -0,0 +1,137 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerTypeaheadDTO;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+@DisplayName("Teste Unitário em BeerNameIndex")
+public class BeerNameIndexTest {
+
+    private BeerNameIndex beerNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        beerNameIndex = new BeerNameIndex(new BeerStockProperties(), new SimpleMeterRegistry());
+        beerNameIndex.populate(Stream.of(
+                new Object[]{1L, "Brahma", "Ambev"},
+                new Object[]{2L, "Budweiser", "Anheuser-Busch"},
+                new Object[]{3L, "Bohemia", "Ambev"},
+                new Object[]{4L, "Heineken", "Heineken"}));
+    }
+
+    @Test
+    @DisplayName("Quando a consulta é o começo de um nome, então a cerveja deve ser sugerida primeiro")
+    void whenQueryIsTheStartOfANameThenThatBeerComesFirst() {
+        // WHEN
+        List<BeerTypeaheadDTO> suggestions = beerNameIndex.search("brah", 10);
+
+        // THEN
+        assertThat(suggestions.get(0).getName(), equalTo("Brahma"));
+    }
+
+    @Test
+    @DisplayName("Quando a consulta tem um erro de digitação, então a cerveja ainda deve ser sugerida primeiro")
+    void whenQueryIsMisspelledThenTheBeerStillComesFirst() {
+        // WHEN
+        List<BeerTypeaheadDTO> suggestions = beerNameIndex.search("Hieneken", 10);
+
+        // THEN
+        assertThat(suggestions.get(0).getName(), equalTo("Heineken"));
+    }
+
+    @Test
+    @DisplayName("Quando a consulta é uma marca, então todas as cervejas da marca devem ser sugeridas")
+    void whenQueryIsABrandThenAllBeersOfTheBrandAreSuggested() {
+        // WHEN
+        List<BeerTypeaheadDTO> suggestions = beerNameIndex.search("ambév", 2);
+
+        // THEN
+        assertThat(names(suggestions), contains("Brahma", "Bohemia"));
+    }
+
+    @Test
+    @DisplayName("Quando uma cerveja é criada ou removida, então o índice deve acompanhar")
+    void whenABeerIsCreatedOrDeletedThenTheIndexFollows() {
+        // WHEN
+        beerNameIndex.onBeerChange(new BeerChangeEvent(BeerChangeType.CREATED, beer(5L, "Brahma Duplo Malte", "Ambev")));
+        beerNameIndex.onBeerChange(new BeerChangeEvent(BeerChangeType.DELETED, beer(1L, "Brahma", "Ambev")));
+
+        // THEN
+        assertThat(names(beerNameIndex.search("brahma", 10)), hasItem("Brahma Duplo Malte"));
+        assertThat(names(beerNameIndex.search("brahma", 10)), not(hasItem("Brahma")));
+        assertThat(beerNameIndex.size(), equalTo(4));
+    }
+
+    @Test
+    @DisplayName("Quando uma cerveja é removida durante a carga, então ela não deve entrar no índice")
+    void whenABeerIsDeletedWhileLoadingThenItStaysOutOfTheIndex() {
+        // GIVEN
+        BeerNameIndex loadingIndex = new BeerNameIndex(new BeerStockProperties(), new SimpleMeterRegistry());
+
+        // WHEN
+        loadingIndex.remove(1L);
+        loadingIndex.populate(Stream.<Object[]>of(new Object[]{1L, "Brahma", "Ambev"}));
+
+        // THEN
+        assertThat(loadingIndex.search("brahma", 10), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Quando a maioria das cervejas é excluída, então o índice deve ser renumerado e seguir sugerindo as restantes")
+    void whenMostBeersAreDeletedThenTheIndexIsRenumberedAndStillSuggestsTheRest() {
+        // GIVEN
+        for (long id = 100; id < 300; id++) {
+            beerNameIndex.add(id, "Lager " + id, "Teste");
+        }
+
+        // WHEN
+        for (long id = 100; id < 250; id++) {
+            beerNameIndex.remove(id);
+        }
+
+        // THEN
+        assertThat(beerNameIndex.size(), equalTo(54));
+        assertThat(beerNameIndex.slots(), lessThan(beerNameIndex.size() * 2));
+        assertThat(beerNameIndex.search("Lager 299", 10).get(0).getName(), equalTo("Lager 299"));
+        assertThat(beerNameIndex.search("Brahma", 10).get(0).getName(), equalTo("Brahma"));
+        assertThat(names(beerNameIndex.search("Lager 120", 10)), not(hasItem("Lager 120")));
+    }
+
+    @Test
+    @DisplayName("Quando a consulta não compartilha trigramas com nenhuma cerveja, então nada deve ser sugerido")
+    void whenQuerySharesNoTrigramThenNothingIsSuggested() {
+        // WHEN
+        List<BeerTypeaheadDTO> suggestions = beerNameIndex.search("xyz", 10);
+
+        // THEN
+        assertThat(suggestions, hasSize(0));
+    }
+
+    private List<String> names(List<BeerTypeaheadDTO> suggestions) {
+        return suggestions.stream().map(BeerTypeaheadDTO::getName).collect(Collectors.toList());
+    }
+
+    private BeerDTO beer(Long id, String name, String brand) {
+        return BeerDTO.builder().id(id).name(name).brand(brand).build();
+    }
+}
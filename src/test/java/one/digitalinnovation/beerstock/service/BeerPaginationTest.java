@@ -0,0 +1,101 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-statistics;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@DisplayName("Teste da paginação por cursor de cervejas")
+public class BeerPaginationTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando o catálogo cresce, então cada página deve carregar a mesma quantidade de cervejas com uma única consulta")
+    void whenCatalogGrowsThenEachPageLoadsTheSameAmountOfBeersWithASingleQuery() throws Exception {
+        // GIVEN
+        createCatalog("Small", PAGE_SIZE * 2);
+        List<Long> smallCatalogLoads = walkPages(PAGE_SIZE * 2);
+        createCatalog("Large", PAGE_SIZE * 18);
+
+        // WHEN
+        List<Long> largeCatalogLoads = walkPages(PAGE_SIZE * 20);
+
+        // THEN
+        assertThat(smallCatalogLoads, everyItem(lessThanOrEqualTo((long) PAGE_SIZE + 1)));
+        assertThat(largeCatalogLoads, everyItem(lessThanOrEqualTo((long) PAGE_SIZE + 1)));
+        assertThat(largeCatalogLoads.get(0), equalTo(smallCatalogLoads.get(0)));
+    }
+
+    private List<Long> walkPages(int expectedBeers) {
+        List<Long> entityLoadsPerPage = new ArrayList<>();
+        int readBeers = 0;
+        Long cursor = null;
+        do {
+            statistics.clear();
+            BeerPageDTO beerPage = beerService.listPage(cursor, PAGE_SIZE, null);
+            assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+            entityLoadsPerPage.add(statistics.getEntityLoadCount());
+            readBeers += beerPage.getBeers().size();
+            cursor = beerPage.getNextCursor();
+        } while (cursor != null);
+        assertThat(readBeers, equalTo(expectedBeers));
+        return entityLoadsPerPage;
+    }
+
+    private void createCatalog(String prefix, int size) throws Exception {
+        List<BeerDTO> catalog = IntStream.range(0, size)
+                .mapToObj(i -> BeerDTO.builder()
+                        .name(prefix + " Beer " + i)
+                        .brand("Ambev")
+                        .max(100)
+                        .quantity(10)
+                        .type(BeerType.LAGER)
+                        .build())
+                .collect(Collectors.toList());
+        beerService.createBeers(catalog);
+    }
+}
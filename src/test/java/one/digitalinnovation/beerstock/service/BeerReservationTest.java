@@ -0,0 +1,165 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerReservationDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.ReservationStatus;
+import one.digitalinnovation.beerstock.exception.BeerReservationConflictException;
+import one.digitalinnovation.beerstock.exception.BeerReservationSettledException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerReservationRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-reservations;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.reservations.ttl=2s"})
+@DisplayName("Teste das reservas de estoque de cervejas")
+public class BeerReservationTest {
+
+    private static final int MAX_STOCK = 100;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerReservationService beerReservationService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerReservationRepository beerReservationRepository;
+
+    @Autowired
+    private BeerStockShardRepository beerStockShardRepository;
+
+    @AfterEach
+    void tearDown() {
+        beerReservationRepository.deleteAllInBatch();
+        beerStockShardRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando há estoque reservado, então o decremento só pode consumir o estoque disponível")
+    void whenStockIsReservedThenDecrementCanOnlyTakeAvailableStock() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Reserved Lager", 50);
+
+        // WHEN
+        beerReservationService.reserve(beerDTO.getId(), 30);
+
+        // THEN
+        assertThrows(BeerStockExceededException.class, () -> beerService.decrement(beerDTO.getId(), 25));
+        BeerDTO decrementedBeerDTO = beerService.decrement(beerDTO.getId(), 20);
+        assertThat(decrementedBeerDTO.getQuantity(), equalTo(30));
+        assertThat(decrementedBeerDTO.getReserved(), equalTo(30));
+        assertThrows(BeerStockExceededException.class, () -> beerReservationService.reserve(beerDTO.getId(), 1));
+    }
+
+    @Test
+    @DisplayName("Quando a reserva é confirmada, então o estoque reservado deve sair da cerveja")
+    void whenReservationIsConfirmedThenReservedStockLeavesTheBeer() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Confirmed Stout", 50);
+        BeerReservationDTO reservation = beerReservationService.reserve(beerDTO.getId(), 10);
+
+        // WHEN
+        BeerReservationDTO confirmed = beerReservationService.confirm(beerDTO.getId(), reservation.getId());
+
+        // THEN
+        Beer beer = beerRepository.findById(beerDTO.getId()).orElseThrow();
+        assertThat(confirmed.getStatus(), equalTo(ReservationStatus.CONFIRMED));
+        assertThat(beer.getQuantity(), equalTo(40));
+        assertThat(beer.getReserved(), equalTo(0));
+        assertThrows(BeerReservationSettledException.class, () -> beerReservationService.cancel(beerDTO.getId(), reservation.getId()));
+    }
+
+    @Test
+    @DisplayName("Quando a reserva é cancelada, então o estoque reservado deve voltar a ficar disponível")
+    void whenReservationIsCancelledThenReservedStockIsAvailableAgain() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Cancelled Weiss", 50);
+        BeerReservationDTO reservation = beerReservationService.reserve(beerDTO.getId(), 50);
+
+        // WHEN
+        beerReservationService.cancel(beerDTO.getId(), reservation.getId());
+
+        // THEN
+        Beer beer = beerRepository.findById(beerDTO.getId()).orElseThrow();
+        assertThat(beer.getQuantity(), equalTo(50));
+        assertThat(beer.getReserved(), equalTo(0));
+        assertThat(beerService.decrement(beerDTO.getId(), 50).getQuantity(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Quando as reservas expiram, então devem ser liberadas em lote sem confirmação")
+    void whenReservationsExpireThenTheyAreReleasedInBulk() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Expired Ale", 50);
+        List<BeerReservationDTO> reservations = IntStream.range(0, 5)
+                .mapToObj(i -> reserve(beerDTO.getId(), 5))
+                .collect(Collectors.toList());
+
+        // WHEN
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (beerRepository.findById(beerDTO.getId()).orElseThrow().getReserved() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        // THEN
+        assertThat(beerRepository.findById(beerDTO.getId()).orElseThrow().getReserved(), equalTo(0));
+        assertThat(beerReservationRepository.findAll().stream().map(reservation -> reservation.getStatus()).collect(Collectors.toList()),
+                everyItem(equalTo(ReservationStatus.EXPIRED)));
+        assertThrows(BeerReservationSettledException.class, () -> beerReservationService.confirm(beerDTO.getId(), reservations.get(0).getId()));
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja tem estoque particionado, então não deve aceitar reservas nem ser particionada com reservas ativas")
+    void whenBeerStockIsShardedThenReservationsAreRefused() throws Exception {
+        // GIVEN
+        BeerDTO shardedBeerDTO = createBeer("Sharded Pilsen", 50);
+        BeerDTO reservedBeerDTO = createBeer("Reserved Pilsen", 50);
+        beerService.reshardStock(shardedBeerDTO.getId(), 4);
+        beerReservationService.reserve(reservedBeerDTO.getId(), 5);
+
+        // THEN
+        assertThrows(BeerReservationConflictException.class, () -> beerReservationService.reserve(shardedBeerDTO.getId(), 5));
+        assertThrows(BeerReservationConflictException.class, () -> beerService.reshardStock(reservedBeerDTO.getId(), 4));
+    }
+
+    private BeerReservationDTO reserve(Long beerId, int quantity) {
+        try {
+            return beerReservationService.reserve(beerId, quantity);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BeerDTO createBeer(String name, int quantity) throws Exception {
+        return beerService.createBeer(BeerDTO.builder()
+                .name(name)
+                .brand("Ambev")
+                .max(MAX_STOCK)
+                .quantity(quantity)
+                .type(BeerType.LAGER)
+                .build());
+    }
+}
@@ -0,0 +1,200 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-search;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=one.digitalinnovation.beerstock.service.BeerSearchTest$RecordingStatementInspector"})
+@DisplayName("Teste da busca filtrada de cervejas")
+public class BeerSearchTest {
+
+    private static final int MAX_STOCK = 100;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerStockShardRepository beerStockShardRepository;
+
+    @Autowired
+    private BeerStockAggregateRepository beerStockAggregateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        beerStockAggregateRepository.deleteAllInBatch();
+        beerStockShardRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando a busca combina filtros, então somente as cervejas que atendem a todos devem ser retornadas")
+    void whenSearchCombinesFiltersThenOnlyBeersMatchingAllAreReturned() throws Exception {
+        // GIVEN
+        createBeer("Search Lager", "Ambev", BeerType.LAGER, 60);
+        createBeer("Search Light Lager", "Ambev", BeerType.LAGER, 10);
+        createBeer("Search Stout", "Ambev", BeerType.STOUT, 60);
+        createBeer("Search Other Lager", "Heineken", BeerType.LAGER, 60);
+        BeerDTO shardedLager = createBeer("Search Sharded Lager", "Ambev", BeerType.LAGER, 0);
+        beerService.reshardStock(shardedLager.getId(), 4);
+        beerService.increment(shardedLager.getId(), 70);
+
+        // WHEN
+        BeerPageDTO byStock = beerService.search(BeerSearchDTO.builder()
+                .type(BeerType.LAGER)
+                .brand("Ambev")
+                .minQuantity(50)
+                .maxQuantity(80)
+                .build(), null, 10, null);
+        BeerPageDTO byFillRatio = beerService.search(BeerSearchDTO.builder()
+                .type(BeerType.LAGER)
+                .maxFillRatio(0.1)
+                .build(), null, 10, null);
+
+        // THEN
+        assertThat(names(byStock), contains("Search Lager", "Search Sharded Lager"));
+        assertThat(names(byFillRatio), contains("Search Light Lager"));
+    }
+
+    @Test
+    @DisplayName("Quando a busca tem mais resultados que o limite, então o cursor deve continuar de onde parou")
+    void whenSearchHasMoreResultsThanTheLimitThenTheCursorResumesWhereItStopped() throws Exception {
+        // GIVEN
+        createBeer("Paged Lager 1", "Ambev", BeerType.LAGER, 10);
+        createBeer("Paged Stout", "Ambev", BeerType.STOUT, 10);
+        createBeer("Paged Lager 2", "Ambev", BeerType.LAGER, 10);
+        createBeer("Paged Lager 3", "Ambev", BeerType.LAGER, 10);
+        BeerSearchDTO search = BeerSearchDTO.builder().type(BeerType.LAGER).build();
+
+        // WHEN
+        BeerPageDTO firstPage = beerService.search(search, null, 2, null);
+        BeerPageDTO secondPage = beerService.search(search, firstPage.getNextCursor(), 2, null);
+
+        // THEN
+        assertThat(names(firstPage), contains("Paged Lager 1", "Paged Lager 2"));
+        assertThat(names(secondPage), contains("Paged Lager 3"));
+        assertThat(secondPage.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("Quando a busca pede só alguns campos, então somente essas colunas devem ser lidas")
+    void whenSearchAsksForSomeFieldsThenOnlyThoseColumnsAreRead() throws Exception {
+        // GIVEN
+        BeerDTO shardedLager = createBeer("Sparse Sharded Lager", "Ambev", BeerType.LAGER, 0);
+        beerService.reshardStock(shardedLager.getId(), 4);
+        beerService.increment(shardedLager.getId(), 30);
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        // WHEN
+        BeerPageDTO beerPage = beerService.search(BeerSearchDTO.builder().type(BeerType.LAGER).build(), null, PAGE_SIZE,
+                EnumSet.of(BeerField.NAME, BeerField.QUANTITY));
+
+        // THEN
+        BeerDTO beerDTO = beerPage.getBeers().get(0);
+        assertThat(beerDTO.getId(), equalTo(shardedLager.getId()));
+        assertThat(beerDTO.getName(), equalTo("Sparse Sharded Lager"));
+        assertThat(beerDTO.getQuantity(), equalTo(30));
+        assertThat(beerDTO.getBrand(), is(nullValue()));
+        assertThat(beerDTO.getMax(), is(nullValue()));
+        String selectList = lastBeerSelect().substring(0, lastBeerSelect().indexOf(" from beer "));
+        assertThat(selectList, not(containsString("brand")));
+        assertThat(selectList, not(containsString("max")));
+    }
+
+    @Test
+    @DisplayName("Quando a busca filtra por tipo e marca, então o plano da consulta deve usar o índice de tipo e marca")
+    void whenSearchFiltersByTypeAndBrandThenTheQueryPlanUsesTheTypeAndBrandIndex() {
+        // WHEN
+        String plan = plan(BeerSearchDTO.builder().type(BeerType.LAGER).brand("Ambev").build(), "LAGER", "Ambev");
+
+        // THEN
+        assertThat(plan, containsString("BEER_TYPE_BRAND_IDX"));
+    }
+
+    @Test
+    @DisplayName("Quando a busca filtra só por marca, então o plano da consulta deve usar o índice de marca")
+    void whenSearchFiltersByBrandThenTheQueryPlanUsesTheBrandIndex() {
+        // WHEN
+        String plan = plan(BeerSearchDTO.builder().brand("Ambev").build(), "Ambev");
+
+        // THEN
+        assertThat(plan, containsString("BEER_BRAND_IDX"));
+    }
+
+    // runs the search to capture the SQL Hibernate generates for it, then asks H2 how it would run it
+    private String plan(BeerSearchDTO search, Object... filters) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        beerService.search(search, null, PAGE_SIZE, null);
+        Object[] parameters = Arrays.copyOf(filters, filters.length + 1);
+        // the search reads one row past the page to tell whether there is a next one
+        parameters[filters.length] = PAGE_SIZE + 1;
+        String sql = lastBeerSelect();
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters).toUpperCase();
+    }
+
+    private String lastBeerSelect() {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select") && statement.contains(" from beer "))
+                .reduce((first, last) -> last)
+                .orElseThrow();
+    }
+
+    private List<String> names(BeerPageDTO beerPage) {
+        return beerPage.getBeers().stream().map(BeerDTO::getName).collect(Collectors.toList());
+    }
+
+    private BeerDTO createBeer(String name, String brand, BeerType type, int quantity) throws Exception {
+        return beerService.createBeer(BeerDTO.builder()
+                .name(name)
+                .brand(brand)
+                .max(MAX_STOCK)
+                .quantity(quantity)
+                .type(type)
+                .build());
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
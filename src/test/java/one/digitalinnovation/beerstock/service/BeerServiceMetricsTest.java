@@ -0,0 +1,156 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-metrics;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.metrics.stock-refresh=1h"})
+@AutoConfigureMockMvc
+@DisplayName("Teste das métricas de BeerService")
+public class BeerServiceMetricsTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerStockAggregateRepository beerStockAggregateRepository;
+
+    @Autowired
+    private BeerStockGauges beerStockGauges;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        beerStockAggregateRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando operações do serviço são chamadas, então devem ser cronometradas por método e tipo de cerveja")
+    void whenServiceOperationsAreCalledThenTheyAreTimedByMethodAndBeerType() throws Exception {
+        // GIVEN
+        BeerDTO stout = beerService.createBeer(beer("Metrics Stout", BeerType.STOUT, 5));
+
+        // WHEN
+        beerService.findByName(stout.getName());
+        beerService.increment(stout.getId(), 1);
+
+        // THEN
+        assertThat(timerCount("createBeer", "STOUT", "none"), equalTo(1L));
+        assertThat(timerCount("findByName", "STOUT", "none"), equalTo(1L));
+        assertThat(timerCount("increment", "STOUT", "none"), equalTo(1L));
+    }
+
+    @Test
+    @DisplayName("Quando o serviço lança exceções de negócio, então devem ser contadas por tipo de exceção")
+    void whenServiceThrowsBusinessExceptionsThenTheyAreCountedByExceptionType() throws Exception {
+        // GIVEN
+        BeerDTO lager = beerService.createBeer(beer("Metrics Lager", BeerType.LAGER, 50));
+        double notFoundBefore = exceptionCount("findByName", "BeerNotFoundException");
+        double exceededBefore = exceptionCount("increment", "BeerStockExceededException");
+
+        // WHEN
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName("Metrics Missing"));
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(lager.getId(), 1));
+
+        // THEN
+        assertThat(exceptionCount("findByName", "BeerNotFoundException"), equalTo(notFoundBefore + 1));
+        assertThat(exceptionCount("increment", "BeerStockExceededException"), equalTo(exceededBefore + 1));
+        assertThat(meterRegistry.get(BeerServiceMetrics.SERVICE_EXCEPTIONS).counter().getId().getTag("type"), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("Quando o estoque muda, então os medidores por tipo devem refletir o total e as cervejas zeradas")
+    void whenStockChangesThenGaugesPerTypeReflectTotalAndEmptyBeers() throws Exception {
+        // GIVEN
+        beerService.createBeers(List.of(
+                beer("Metrics IPA 1", BeerType.IPA, 7),
+                beer("Metrics IPA 2", BeerType.IPA, 0),
+                beer("Metrics Ale", BeerType.ALE, 3)));
+
+        // WHEN
+        beerStockGauges.refresh();
+
+        // THEN
+        assertThat(gauge("beerstock.stock.total", BeerType.IPA), equalTo(7.0));
+        assertThat(gauge("beerstock.stock.empty", BeerType.IPA), equalTo(1.0));
+        assertThat(gauge("beerstock.stock.total", BeerType.ALE), equalTo(3.0));
+        assertThat(gauge("beerstock.stock.empty", BeerType.WEISS), equalTo(0.0));
+    }
+
+    @Test
+    @DisplayName("Quando o endpoint do Prometheus é lido, então deve expor os histogramas do serviço")
+    void whenPrometheusEndpointIsScrapedThenServiceHistogramsAreExposed() throws Exception {
+        // GIVEN
+        beerService.listAll();
+
+        // THEN
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("beerstock_service_seconds_bucket{exception=\"none\",method=\"listAll\"")))
+                .andExpect(content().string(containsString("beerstock_stock_total{type=\"LAGER\"")));
+    }
+
+    private BeerDTO beer(String name, BeerType type, int quantity) {
+        return BeerDTO.builder()
+                .name(name)
+                .brand("Metrics Brewery")
+                .max(50)
+                .quantity(quantity)
+                .type(type)
+                .build();
+    }
+
+    private long timerCount(String method, String type, String exception) {
+        return meterRegistry.get(BeerServiceMetrics.SERVICE_TIMER)
+                .tags("method", method, "type", type, "exception", exception)
+                .timer()
+                .count();
+    }
+
+    private double exceptionCount(String method, String exception) {
+        return meterRegistry.find(BeerServiceMetrics.SERVICE_EXCEPTIONS)
+                .tags("method", method, "exception", exception)
+                .counters()
+                .stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private double gauge(String name, BeerType type) {
+        return meterRegistry.get(name).tag("type", type.name()).gauge().value();
+    }
+}
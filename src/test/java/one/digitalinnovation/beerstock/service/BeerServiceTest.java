@@ -1,23 +1,51 @@
 package one.digitalinnovation.beerstock.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.CacheConfig;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerVersionDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentResultDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentStatus;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerPageOutOfRangeException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerReservationRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
@@ -37,6 +65,52 @@ public class BeerServiceTest {
     @Mock
     private BeerRepository beerRepository;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private BeerLookupCoalescer beerLookupCoalescer = new BeerLookupCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    private BeerNameFilter beerNameFilter = new BeerNameFilter(new BeerStockProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private BeerNameIndex beerNameIndex = new BeerNameIndex(new BeerStockProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private StockMutationRetrier stockMutationRetrier = new StockMutationRetrier(new BeerStockProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private BeerCatalogVersion beerCatalogVersion = new BeerCatalogVersion();
+
+    @Mock
+    private WriteBehindStockBuffer writeBehindStockBuffer;
+
+    @Mock
+    private StockGroupCommitter stockGroupCommitter;
+
+    @Mock
+    private BeerStockShards beerStockShards;
+
+    @Mock
+    private BeerReservationRepository beerReservationRepository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private BeerChangeSequence beerChangeSequence = new BeerChangeSequence();
+
+    @Mock
+    private BeerTombstoneRepository beerTombstoneRepository;
+
+    @Spy
+    private BeerStockStats beerStockStats = new BeerStockStats(mock(BeerRepository.class), mock(BeerStockAggregateRepository.class),
+            mock(PlatformTransactionManager.class), new BeerStockProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private BeerStockAlerts beerStockAlerts;
+
     @InjectMocks
     private BeerService beerService;
 
@@ -46,10 +120,14 @@ public class BeerServiceTest {
         // GIVEN
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer beer = beerMapper.toModel(expectedBeerDTO);
+        beer.setId(null);
+        beer.setChangeSequence(1L);
+        Beer savedBeer = beerMapper.toModel(expectedBeerDTO);
+        savedBeer.setChangeSequence(1L);
 
         // WHEN
         when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
-        when(beerRepository.save(beer)).thenReturn(beer);
+        when(beerRepository.save(beer)).thenReturn(savedBeer);
 
         //THEN
         BeerDTO createdBearDTO = beerService.createBeer(expectedBeerDTO);
@@ -61,6 +139,28 @@ public class BeerServiceTest {
         assertThat(createdBearDTO.getQuantity(), is(greaterThan(2)));
     }
 
+    @Test
+    @DisplayName("Quando a cerveja informada traz um id, então ele deve ser ignorado e o id gerado retornado")
+    void whenBeerInformedWithAnIdThenTheGeneratedIdIsReturned() throws BeerAlreadyRegisteredException {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(99L).build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        beer.setId(null);
+        beer.setChangeSequence(1L);
+        Beer savedBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(1L).build().toBeerDTO());
+        savedBeer.setChangeSequence(1L);
+
+        // WHEN
+        when(beerRepository.findByName(beerDTO.getName())).thenReturn(Optional.empty());
+        when(beerRepository.save(beer)).thenReturn(savedBeer);
+
+        // THEN
+        BeerDTO createdBeerDTO = beerService.createBeer(beerDTO);
+
+        // ASSERT
+        assertThat(createdBeerDTO.getId(), is(equalTo(1L)));
+    }
+
     @Test
     @DisplayName("Quando a cerveja informada já estiver cadastrada deve-se lançar uma exceção")
     void whenTheBeerInformedIsAlreadyRegisteredThenAnExceptionMustBeThrow() {
@@ -75,15 +175,64 @@ public class BeerServiceTest {
         assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
     }
 
+    @Test
+    @DisplayName("Quando uma lista de cervejas é informada, então todas devem ser criadas")
+    void whenBeerListInformedThenAllShouldBeCreated() throws BeerAlreadyRegisteredException {
+        // GIVEN
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().id(null).build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(null).name("Skol").build().toBeerDTO();
+        List<Beer> beers = List.of(beerMapper.toModel(firstBeerDTO), beerMapper.toModel(secondBeerDTO));
+        beers.get(0).setChangeSequence(1L);
+        beers.get(1).setChangeSequence(2L);
+        BeerDTO firstSavedBeerDTO = BeerDTOBuilder.builder().id(1L).build().toBeerDTO();
+        BeerDTO secondSavedBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        List<Beer> savedBeers = List.of(beerMapper.toModel(firstSavedBeerDTO), beerMapper.toModel(secondSavedBeerDTO));
+
+        // WHEN
+        when(beerRepository.findNamesByNameIn(Set.of(firstBeerDTO.getName(), secondBeerDTO.getName()))).thenReturn(Collections.emptyList());
+        when(beerRepository.saveAll(beers)).thenReturn(savedBeers);
+
+        // THEN
+        List<BeerDTO> createdBeerDTOs = beerService.createBeers(List.of(firstBeerDTO, secondBeerDTO));
+
+        // ASSERT
+        assertThat(createdBeerDTOs, contains(firstSavedBeerDTO, secondSavedBeerDTO));
+    }
+
+    @Test
+    @DisplayName("Quando a lista de cervejas contém um nome já cadastrado, então lance uma exceção")
+    void whenBeerListContainsAlreadyRegisteredNameThenThrowException() {
+        // GIVEN
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().name("Skol").build().toBeerDTO();
+
+        // WHEN
+        when(beerRepository.findNamesByNameIn(Set.of(firstBeerDTO.getName(), secondBeerDTO.getName()))).thenReturn(List.of(secondBeerDTO.getName()));
+
+        // THEN
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeers(List.of(firstBeerDTO, secondBeerDTO)));
+        verify(beerRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Quando a lista de cervejas repete um nome, então lance uma exceção sem consultar o banco")
+    void whenBeerListRepeatsANameThenThrowExceptionWithoutQuery() {
+        // GIVEN
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // THEN
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeers(List.of(beerDTO, beerDTO)));
+        verifyNoInteractions(beerRepository);
+    }
+
     @Test
     @DisplayName("Quando um nome de cerveja válido é fornecido, então retorne uma cerveja")
     void whenValidBeerNameIsGivenThenReturnABeer() throws BeerNotFoundException {
         // GIVEN
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer expectedFoundBear = beerMapper.toModel(expectedBeerDTO);
 
         // WHEN
-        when(beerRepository.findByName(expectedFoundBear.getName())).thenReturn(Optional.of(expectedFoundBear));
+        when(beerRepository.findDTOByName(expectedBeerDTO.getName())).thenReturn(Optional.of(expectedBeerDTO));
 
         // THEN
         BeerDTO foundBearDTO = beerService.findByName(expectedBeerDTO.getName());
@@ -99,21 +248,92 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         // WHEN
-        when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
+        when(beerRepository.findDTOByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
 
         // THEN ASSERT THROW
         assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedBeerDTO.getName()));
     }
 
+    @Test
+    @DisplayName("Quando o filtro de nomes descarta o nome, então lance uma exceção sem consultar o banco")
+    void whenNameFilterRulesOutTheNameThenThrowExceptionWithoutQuery() {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerNameFilter.populate(Stream.empty());
+
+        // THEN
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedBeerDTO.getName()));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    @DisplayName("Quando a busca por vários nomes é chamada, então os resultados devem vir na ordem pedida e os ausentes sinalizados")
+    void whenLookupIsCalledWithManyNamesThenResultsFollowRequestOrderAndMissingNamesAreFlagged() {
+        // GIVEN
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().id(1L).name("Lager").build().toBeerDTO();
+        BeerDTO stoutDTO = BeerDTOBuilder.builder().id(2L).name("Stout").build().toBeerDTO();
+
+        // WHEN
+        when(beerRepository.findDTOsByNameIn(anyCollection())).thenReturn(List.of(lagerDTO, stoutDTO));
+
+        // THEN
+        List<BeerLookupDTO> results = beerService.lookup(List.of("Stout", "Missing", "Lager", "Stout"));
+        assertThat(results, contains(
+                new BeerLookupDTO("Stout", true, stoutDTO),
+                new BeerLookupDTO("Missing", false, null),
+                new BeerLookupDTO("Lager", true, lagerDTO),
+                new BeerLookupDTO("Stout", true, stoutDTO)));
+        verify(beerRepository, times(1)).findDTOsByNameIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Quando a busca por vários nomes passa do tamanho de um lote, então deve ser feita uma consulta por lote")
+    void whenLookupHasMoreNamesThanAChunkThenOneQueryPerChunkIsMade() {
+        // GIVEN
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i <= 2 * BeerRepository.IN_CLAUSE_CHUNK_SIZE; i++) {
+            names.add("Beer " + i);
+        }
+
+        // WHEN
+        when(beerRepository.findDTOsByNameIn(anyCollection())).thenReturn(List.of());
+
+        // THEN
+        List<BeerLookupDTO> results = beerService.lookup(names);
+        assertThat(results, hasSize(names.size()));
+        assertThat(results.get(0).isFound(), is(false));
+        verify(beerRepository, times(3)).findDTOsByNameIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Quando o filtro de nomes descarta o nome, então a cerveja deve ser criada sem verificar duplicidade no banco")
+    void whenNameFilterRulesOutTheNameThenBeerIsCreatedWithoutDuplicateQuery() throws BeerAlreadyRegisteredException {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(expectedBeerDTO);
+        beer.setId(null);
+        beer.setChangeSequence(1L);
+        beerNameFilter.populate(Stream.empty());
+
+        // WHEN
+        when(beerRepository.save(beer)).thenReturn(beer);
+
+        // THEN
+        beerService.createBeer(expectedBeerDTO);
+
+        //ASSERT WITH VERIFY
+        verify(beerRepository, never()).findByName(expectedBeerDTO.getName());
+        assertThat(beerNameFilter.mightContain(expectedBeerDTO.getName()), is(true));
+    }
+
     @Test
     @DisplayName("Quando a listagem de cervejas for chamada, então retorne a lista de cervejas")
     void whenListBeerIsCalledThenReturnListOfBeers() {
         // GIVEN
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer expectedFoundBear = beerMapper.toModel(expectedBeerDTO);
 
         // WHEN
-        when(beerRepository.findAll()).thenReturn(Collections.singletonList(expectedFoundBear));
+        when(beerRepository.findAllDTOs()).thenReturn(Collections.singletonList(expectedBeerDTO));
 
         // THEN
         List<BeerDTO> foundListBeerDTOS = beerService.listAll();
@@ -127,7 +347,7 @@ public class BeerServiceTest {
     @DisplayName("Quando a listagem de cerveja é chamada, então retorna uma lista vazia de cervejas")
     void whenListBeerIsCalledThenReturnAnEmptyListOfBeers() {
         // WHEN
-        when(beerRepository.findAll()).thenReturn(Collections.emptyList());
+        when(beerRepository.findAllDTOs()).thenReturn(Collections.emptyList());
 
         // THEN
         List<BeerDTO> foundListBeerDTOS = beerService.listAll();
@@ -136,6 +356,86 @@ public class BeerServiceTest {
         assertThat(foundListBeerDTOS, is(empty()));
     }
 
+    @Test
+    @DisplayName("Quando a página por cursor tem mais cervejas, então retorne o próximo cursor")
+    void whenCursorPageHasMoreBeersThenReturnNextCursor() {
+        // GIVEN
+        BeerDTO firstBeer = BeerDTOBuilder.builder().id(1L).build().toBeerDTO();
+        BeerDTO secondBeer = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+        // WHEN
+        when(beerRepository.findDTOs(isNull(), isNull(), eq(Sort.by("id")), eq(0L), eq(2))).thenReturn(List.of(firstBeer, secondBeer));
+
+        // THEN
+        BeerPageDTO beerPage = beerService.listPage(null, 1, null);
+
+        //ASSERT WITH HAMCREST MATCHERS
+        assertThat(beerPage.getBeers(), contains(firstBeer));
+        assertThat(beerPage.getNextCursor(), is(equalTo(firstBeer.getId())));
+    }
+
+    @Test
+    @DisplayName("Quando a página por offset tem mais cervejas, então retorne a próxima página sem contar as cervejas")
+    void whenOffsetPageHasMoreBeersThenReturnNextPageWithoutCounting() throws BeerPageOutOfRangeException {
+        // GIVEN
+        BeerDTO thirdBeer = BeerDTO.builder().id(3L).name("Skol").build();
+        BeerDTO fourthBeer = BeerDTO.builder().id(4L).name("Stella").build();
+        Set<BeerField> fields = EnumSet.of(BeerField.NAME);
+
+        // WHEN
+        when(beerRepository.findDTOs(isNull(), eq(fields), eq(Sort.by("id")), eq(2L), eq(2))).thenReturn(List.of(thirdBeer, fourthBeer));
+
+        // THEN
+        BeerPageDTO beerPage = beerService.listOffsetPage(2, 1, fields);
+
+        //ASSERT WITH HAMCREST MATCHERS
+        assertThat(beerPage.getBeers(), contains(thirdBeer));
+        assertThat(beerPage.getNextPage(), is(equalTo(3)));
+        verify(beerRepository, never()).count();
+    }
+
+    @Test
+    @DisplayName("Quando a página por offset passa do alcance do banco, então uma exceção deve ser lançada")
+    void whenOffsetPageIsOutOfRangeThenAnExceptionShouldBeThrown() {
+        // THEN
+        assertThrows(BeerPageOutOfRangeException.class, () -> beerService.listOffsetPage(Integer.MAX_VALUE, 100, null));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    @DisplayName("Quando a última página por cursor é lida, então não retorne o próximo cursor")
+    void whenLastCursorPageIsReadThenReturnNoNextCursor() {
+        // GIVEN
+        BeerDTO lastBeer = BeerDTOBuilder.builder().id(2L).build().toBeerDTO();
+
+        // WHEN
+        when(beerRepository.findDTOs(notNull(), isNull(), eq(Sort.by("id")), eq(0L), eq(11))).thenReturn(List.of(lastBeer));
+
+        // THEN
+        BeerPageDTO beerPage = beerService.listPage(1L, 10, null);
+
+        //ASSERT WITH HAMCREST MATCHERS
+        assertThat(beerPage.getBeers(), contains(lastBeer));
+        assertThat(beerPage.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("Quando a exportação é chamada, então cada cerveja é entregue")
+    void whenExportIsCalledThenEachBeerIsDelivered() {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        List<BeerDTO> exportedBeerDTOs = new ArrayList<>();
+
+        // WHEN
+        when(beerRepository.streamAllDTOsOrderedById()).thenReturn(Stream.of(expectedBeerDTO));
+
+        // THEN
+        beerService.exportAll(exportedBeerDTOs::add);
+
+        // ASSERT
+        assertThat(exportedBeerDTOs, contains(expectedBeerDTO));
+    }
+
     @Test
     @DisplayName("Quando a exclusão é chamada com um ID válido, então a cerveja deve ser excluida")
     void whenExclusionIsCalledWithValidIdThenABeerShouldBeDeleted() throws BeerNotFoundException {
@@ -144,22 +444,41 @@ public class BeerServiceTest {
         Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
 
         // WHEN
-        when(beerRepository.findById(expectedDeletedBeer.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        when(beerRepository.lockById(expectedDeletedBeer.getId())).thenReturn(Optional.of(expectedDeletedBeer));
         doNothing().when(beerRepository).deleteById(expectedDeletedBeer.getId());
 
         // THEN
         beerService.deleteById(expectedDeletedBeerDTO.getId());
 
         //ASSERT WITH VERIFY
-        verify(beerRepository, times(1)).findById(expectedDeletedBeerDTO.getId());
+        verify(beerRepository, times(1)).lockById(expectedDeletedBeerDTO.getId());
         verify(beerRepository, times(1)).deleteById(expectedDeletedBeerDTO.getId());
     }
 
+    @Test
+    @DisplayName("Quando a exclusão é chamada com um ID válido, então a cerveja deve ser removida do cache")
+    void whenExclusionIsCalledWithValidIdThenBeerIsEvictedFromCache() throws BeerNotFoundException {
+        // GIVEN
+        BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+        Cache beersByNameCache = mock(Cache.class);
+
+        // WHEN
+        when(beerRepository.lockById(expectedDeletedBeer.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        when(cacheManager.getCache(CacheConfig.BEERS_BY_NAME_CACHE)).thenReturn(beersByNameCache);
+
+        // THEN
+        beerService.deleteById(expectedDeletedBeerDTO.getId());
+
+        //ASSERT WITH VERIFY
+        verify(beersByNameCache, times(1)).evict(expectedDeletedBeerDTO.getName());
+    }
+
     @Test
     @DisplayName("Quando a exclusão é chamada com um ID invalido, então uma exceção deve ser lançada")
     void whenExclusionIsCalledWithInvalidIdThenThrowAnException() {
         // WHEN
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(beerRepository.lockById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
         // THEN ASSERT THROW
         assertThrows(BeerNotFoundException.class, () -> beerService.deleteById(INVALID_BEER_ID));
@@ -167,16 +486,17 @@ public class BeerServiceTest {
 
     @Test
     @DisplayName("Quando o incremento for chamado, então incremente no estoque")
-    void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException {
+    void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
         // GIVEN
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
-
         int quantityToIncrement = 10;
         int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+        when(beerRepository.incrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToIncrement), anyLong())).thenReturn(1);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
         // THEN
         BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), quantityToIncrement);
@@ -194,7 +514,8 @@ public class BeerServiceTest {
         int quantityToIncrement = 80;
 
         // WHEN
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.incrementQuantity(eq(expectedBeer.getId()), eq(quantityToIncrement), anyLong())).thenReturn(0);
+        when(beerRepository.existsById(expectedBeer.getId())).thenReturn(true);
 
         // THEN
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
@@ -209,7 +530,8 @@ public class BeerServiceTest {
         int quantityToIncrement = 45;
 
         // WHEN
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.incrementQuantity(eq(expectedBeer.getId()), eq(quantityToIncrement), anyLong())).thenReturn(0);
+        when(beerRepository.existsById(expectedBeer.getId())).thenReturn(true);
 
         // THEN
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
@@ -217,16 +539,17 @@ public class BeerServiceTest {
 
     @Test
     @DisplayName("Quando o decrement é chamado, então decrementa o estoque de cerveja")
-    void whenDecrementIsCalledThenDecrementBeerStock() throws BeerNotFoundException, BeerStockExceededException {
+    void whenDecrementIsCalledThenDecrementBeerStock() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
         // GIVEN
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
         int quantityToDecrement = 5;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
 
         // WHEN
+        when(beerRepository.decrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToDecrement), anyLong())).thenReturn(1);
         when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
 
         // THEN
         BeerDTO decrementBeerDTO = beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement);
@@ -238,16 +561,17 @@ public class BeerServiceTest {
 
     @Test
     @DisplayName("Quando o decrement é chamado para esvaziar o estoque, então deve esvaziar o estoque de cerveja")
-    void whenDecrementIsCalledToEmptyStockThenEmptyBeerStock() throws BeerNotFoundException, BeerStockExceededException {
+    void whenDecrementIsCalledToEmptyStockThenEmptyBeerStock() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
         // GIVEN
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
         int quantityToDecrement = 10;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
 
         // WHEN
+        when(beerRepository.decrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToDecrement), anyLong())).thenReturn(1);
         when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
 
         // THEN
         BeerDTO decrementedBeerDTO = beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement);
@@ -267,7 +591,8 @@ public class BeerServiceTest {
         int quantityToDecrement = 80;
 
         // WHEN
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.decrementQuantity(eq(expectedBeer.getId()), eq(quantityToDecrement), anyLong())).thenReturn(0);
+        when(beerRepository.existsById(expectedBeer.getId())).thenReturn(true);
 
         // THEN WITH ASSERT
         assertThrows(BeerStockExceededException.class, () -> beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement));
@@ -280,9 +605,156 @@ public class BeerServiceTest {
         int quantityToDecrement = 10;
 
         // THEN
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(beerRepository.decrementQuantity(eq(INVALID_BEER_ID), eq(quantityToDecrement), anyLong())).thenReturn(0);
+        when(beerRepository.existsById(INVALID_BEER_ID)).thenReturn(false);
 
         // ASSERT
         assertThrows(BeerNotFoundException.class, () -> beerService.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
+
+    @Test
+    @DisplayName("Quando o incremento condicional é chamado com versão desatualizada, então lance uma exceção de versão")
+    void whenConditionalIncrementIsCalledWithStaleVersionThenThrowVersionMismatchException() {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        int quantityToIncrement = 10;
+
+        // WHEN
+        when(beerRepository.incrementQuantityAtVersion(eq(expectedBeerDTO.getId()), eq(quantityToIncrement), eq(2L), anyLong())).thenReturn(0);
+        when(beerRepository.findVersionById(expectedBeerDTO.getId())).thenReturn(Optional.of(new BeerVersionDTO(expectedBeerDTO.getId(), 3L)));
+
+        // THEN
+        assertThrows(BeerVersionMismatchException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement, 2L));
+    }
+
+    @Test
+    @DisplayName("Quando o estoque é alterado, então a versão do catálogo deve mudar")
+    void whenStockChangesThenCatalogVersionChanges() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        String catalogVersionBefore = beerService.catalogVersion();
+
+        // WHEN
+        when(beerRepository.decrementQuantity(eq(expectedBeerDTO.getId()), eq(5), anyLong())).thenReturn(1);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        beerService.decrement(expectedBeerDTO.getId(), 5);
+
+        // THEN
+        assertThat(beerService.catalogVersion(), not(equalTo(catalogVersionBefore)));
+    }
+
+    @Test
+    @DisplayName("Quando o modo write-behind está ativo, então o decremento deve ser aplicado no buffer em memória")
+    void whenWriteBehindIsEnabledThenDecrementIsAppliedToTheInMemoryBuffer() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().quantity(5).build().toBeerDTO();
+
+        // WHEN
+        when(writeBehindStockBuffer.adjust(expectedBeerDTO.getId(), -5)).thenReturn(Optional.of(expectedBeerDTO));
+
+        // THEN
+        BeerDTO decrementedBeerDTO = beerService.decrement(expectedBeerDTO.getId(), 5);
+
+        assertThat(decrementedBeerDTO, is(equalTo(expectedBeerDTO)));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja tem estoque particionado, então o decremento deve ser aplicado nas partições")
+    void whenBeerStockIsShardedThenDecrementIsAppliedToTheShards() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        // WHEN
+        when(beerStockShards.isSharded(expectedBeerDTO.getId())).thenReturn(true);
+        when(beerStockShards.adjust(expectedBeerDTO.getId(), -5)).thenReturn(true);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        // THEN
+        beerService.decrement(expectedBeerDTO.getId(), 5);
+
+        verify(beerRepository, never()).decrementQuantity(eq(expectedBeerDTO.getId()), eq(5), anyLong());
+    }
+
+    @Test
+    @DisplayName("Quando o incremento sofre um conflito de concorrência, então deve ser repetido")
+    void whenIncrementHitsAConcurrencyConflictThenItIsRetried() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        int quantityToIncrement = 10;
+        expectedBeer.setQuantity(expectedBeerDTO.getQuantity() + quantityToIncrement);
+
+        // WHEN
+        when(beerRepository.incrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToIncrement), anyLong()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(1);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        // THEN
+        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), quantityToIncrement);
+
+        assertThat(incrementedBeerDTO.getQuantity(), equalTo(expectedBeer.getQuantity()));
+        verify(beerRepository, times(2)).incrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToIncrement), anyLong());
+    }
+
+    @Test
+    @DisplayName("Quando o decremento esgota as tentativas por conflito, então lance uma exceção de conflito")
+    void whenDecrementRunsOutOfRetriesThenThrowConflictException() {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        int quantityToDecrement = 5;
+
+        // WHEN
+        when(beerRepository.decrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToDecrement), anyLong()))
+                .thenThrow(new OptimisticLockingFailureException("version changed"));
+
+        // THEN
+        assertThrows(BeerStockConflictException.class, () -> beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement));
+        verify(beerRepository, times(3)).decrementQuantity(eq(expectedBeerDTO.getId()), eq(quantityToDecrement), anyLong());
+        verify(beerRepository, never()).findById(expectedBeerDTO.getId());
+    }
+
+    @Test
+    @DisplayName("Quando o ajuste de estoque em lote parcial é chamado, então cada ajuste deve informar o seu resultado")
+    void whenPartialStockAdjustmentIsCalledThenEachAdjustmentReportsItsResult() throws BeerNotFoundException, BeerStockExceededException {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        StockAdjustmentDTO exceededAdjustment = StockAdjustmentDTO.builder().id(expectedBeer.getId()).quantity(80).build();
+        StockAdjustmentDTO appliedAdjustment = StockAdjustmentDTO.builder().id(expectedBeer.getId()).quantity(5).build();
+        StockAdjustmentDTO notFoundAdjustment = StockAdjustmentDTO.builder().id(INVALID_BEER_ID + 1).quantity(5).build();
+        List<StockAdjustmentDTO> adjustments = List.of(notFoundAdjustment, exceededAdjustment, appliedAdjustment);
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(List.of(exceededAdjustment, appliedAdjustment, notFoundAdjustment)), anyLong())).thenReturn(new int[]{0, 1, 0});
+        when(beerRepository.findAllById(List.of(expectedBeer.getId(), notFoundAdjustment.getId()))).thenReturn(List.of(expectedBeer));
+
+        // THEN
+        List<StockAdjustmentResultDTO> results = beerService.adjustStock(adjustments, true);
+
+        // ASSERT
+        assertThat(results, contains(
+                new StockAdjustmentResultDTO(expectedBeer.getId(), 80, StockAdjustmentStatus.STOCK_EXCEEDED, expectedBeer.getQuantity()),
+                new StockAdjustmentResultDTO(expectedBeer.getId(), 5, StockAdjustmentStatus.APPLIED, expectedBeer.getQuantity()),
+                new StockAdjustmentResultDTO(notFoundAdjustment.getId(), 5, StockAdjustmentStatus.NOT_FOUND, null)));
+    }
+
+    @Test
+    @DisplayName("Quando o ajuste de estoque em lote atômico excede o estoque, então lance uma exceção")
+    void whenAtomicStockAdjustmentExceedsStockThenThrowException() {
+        // GIVEN
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        List<StockAdjustmentDTO> adjustments = List.of(StockAdjustmentDTO.builder().id(expectedBeer.getId()).quantity(-80).build());
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(adjustments), anyLong())).thenReturn(new int[]{0});
+        when(beerRepository.findAllById(List.of(expectedBeer.getId()))).thenReturn(List.of(expectedBeer));
+
+        // THEN
+        assertThrows(BeerStockExceededException.class, () -> beerService.adjustStock(adjustments, false));
+    }
 }
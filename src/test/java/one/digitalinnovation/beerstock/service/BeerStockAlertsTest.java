@@ -0,0 +1,196 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockAlertDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockThresholdDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockThreshold;
+import one.digitalinnovation.beerstock.enums.BeerChangeType;
+import one.digitalinnovation.beerstock.enums.StockThresholdUnit;
+import one.digitalinnovation.beerstock.event.BeerChangeEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockThresholdRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Teste Unitário em BeerStockAlerts")
+public class BeerStockAlertsTest {
+
+    private static final long BEER_ID = 1L;
+    private static final int MAX_STOCK = 50;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerStockThresholdRepository thresholdRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private BeerStockAlerts beerStockAlerts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beerStockAlerts = new BeerStockAlerts(beerRepository, thresholdRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Quando o estoque cai abaixo do limite, então um alerta deve ser levantado")
+    void whenStockDropsBelowThresholdThenAlertIsRaised() throws BeerNotFoundException {
+        // GIVEN
+        setThreshold(StockThresholdUnit.UNITS, 10, 5, 20);
+
+        // WHEN
+        stockChanged(8, 2);
+
+        // THEN
+        List<BeerStockAlertDTO> alerts = beerStockAlerts.activeAlerts();
+        assertThat(alerts, hasSize(1));
+        assertThat(alerts.get(0).getBeerId(), equalTo(BEER_ID));
+        assertThat(alerts.get(0).getQuantity(), equalTo(8));
+        assertThat(alerts.get(0).getThreshold(), equalTo(10));
+        assertThat(meterRegistry.get("beerstock.stock.alerts.active").gauge().value(), equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("Quando o estoque oscila em torno do limite, então o alerta só deve ser encerrado após a histerese")
+    void whenStockHoversAroundThresholdThenAlertOnlyClearsPastTheHysteresis() throws BeerNotFoundException {
+        // GIVEN
+        setThreshold(StockThresholdUnit.UNITS, 10, 5, 20);
+
+        // WHEN
+        stockChanged(9, 2);
+        stockChanged(12, 3);
+        stockChanged(9, 4);
+        stockChanged(14, 5);
+        List<BeerStockAlertDTO> alertsBelowHysteresis = beerStockAlerts.activeAlerts();
+        stockChanged(15, 6);
+
+        // THEN
+        assertThat(alertsBelowHysteresis, hasSize(1));
+        assertThat(alertsBelowHysteresis.get(0).getQuantity(), equalTo(14));
+        assertThat(beerStockAlerts.activeAlerts(), is(empty()));
+        assertThat(meterRegistry.get("beerstock.stock.alerts.raised").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("Quando o limite é um percentual do máximo, então o alerta deve ser levantado abaixo desse percentual")
+    void whenThresholdIsAPercentageOfMaxThenAlertIsRaisedBelowIt() throws BeerNotFoundException {
+        // GIVEN
+        setThreshold(StockThresholdUnit.PERCENT, 20, 10, MAX_STOCK);
+
+        // WHEN
+        stockChanged(10, 2);
+        List<BeerStockAlertDTO> alertsAtThreshold = beerStockAlerts.activeAlerts();
+        stockChanged(9, 3);
+
+        // THEN
+        assertThat(alertsAtThreshold, is(empty()));
+        assertThat(beerStockAlerts.activeAlerts(), hasSize(1));
+    }
+
+    @Test
+    @DisplayName("Quando uma alteração antiga chega depois de uma mais nova, então ela deve ser ignorada")
+    void whenOlderChangeArrivesAfterNewerOneThenItIsIgnored() throws BeerNotFoundException {
+        // GIVEN
+        setThreshold(StockThresholdUnit.UNITS, 10, 5, 20);
+
+        // WHEN
+        stockChanged(5, 4);
+        stockChanged(30, 3);
+
+        // THEN
+        assertThat(beerStockAlerts.activeAlerts(), hasSize(1));
+        assertThat(beerStockAlerts.activeAlerts().get(0).getQuantity(), equalTo(5));
+    }
+
+    @Test
+    @DisplayName("Quando o limite é removido, então o alerta ativo deve ser encerrado")
+    void whenThresholdIsRemovedThenActiveAlertIsCleared() throws BeerNotFoundException {
+        // GIVEN
+        setThreshold(StockThresholdUnit.UNITS, 10, 5, 3);
+
+        // WHEN
+        beerStockAlerts.removeThreshold(BEER_ID);
+        stockChanged(2, 2);
+
+        // THEN
+        verify(thresholdRepository).deleteByBeerId(BEER_ID);
+        assertThat(beerStockAlerts.activeAlerts(), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Quando a exclusão da cerveja é confirmada, então o alerta ativo deve ser encerrado")
+    void whenBeerDeletionIsCommittedThenActiveAlertIsCleared() throws BeerNotFoundException {
+        // GIVEN
+        setThreshold(StockThresholdUnit.UNITS, 10, 5, 3);
+
+        // WHEN
+        beerStockAlerts.deleteStoredThreshold(BEER_ID);
+        stockChanged(2, 2);
+        assertThat(beerStockAlerts.activeAlerts(), hasSize(1));
+        beerStockAlerts.onBeerChange(new BeerChangeEvent(BeerChangeType.DELETED, beer(2, 2)));
+        stockChanged(2, 3);
+
+        // THEN
+        verify(thresholdRepository).deleteByBeerId(BEER_ID);
+        assertThat(beerStockAlerts.activeAlerts(), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Quando o limite é definido para uma cerveja inexistente, então uma exceção deve ser lançada")
+    void whenThresholdIsSetForUnknownBeerThenAnExceptionShouldBeThrown() {
+        // GIVEN
+        BeerStockThresholdDTO thresholdDTO = new BeerStockThresholdDTO(StockThresholdUnit.UNITS, 10, 5);
+
+        // WHEN
+        when(beerRepository.findById(BEER_ID)).thenReturn(Optional.empty());
+
+        // THEN
+        assertThrows(BeerNotFoundException.class, () -> beerStockAlerts.setThreshold(BEER_ID, thresholdDTO));
+    }
+
+    private void setThreshold(StockThresholdUnit unit, int threshold, int hysteresis, int quantity) throws BeerNotFoundException {
+        Beer beer = beerMapper.toModel(beer(quantity, 1));
+        when(beerRepository.findById(BEER_ID)).thenReturn(Optional.of(beer));
+        when(thresholdRepository.save(any(BeerStockThreshold.class))).then(returnsFirstArg());
+        beerStockAlerts.setThreshold(BEER_ID, new BeerStockThresholdDTO(unit, threshold, hysteresis));
+    }
+
+    private void stockChanged(int quantity, long version) {
+        beerStockAlerts.onBeerChange(new BeerChangeEvent(BeerChangeType.STOCK_CHANGED, beer(quantity, version)));
+    }
+
+    private BeerDTO beer(int quantity, long version) {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(BEER_ID).max(MAX_STOCK).quantity(quantity).build().toBeerDTO();
+        beerDTO.setVersion(version);
+        return beerDTO;
+    }
+}
@@ -0,0 +1,193 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@DisplayName("Teste de concorrência no estoque de cervejas")
+public class BeerStockConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 25;
+    private static final int MAX_STOCK = THREADS * OPERATIONS_PER_THREAD;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    private ExecutorService executor;
+
+    private Beer beer;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        beer = beerRepository.save(newBeer("Concurrency Lager", BeerType.LAGER));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        beerRepository.deleteById(beer.getId());
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads incrementam a mesma cerveja, então nenhuma atualização deve ser perdida")
+    void whenManyThreadsIncrementTheSameBeerThenNoUpdateIsLost() throws Exception {
+        // WHEN
+        runConcurrently(() -> {
+            beerService.increment(beer.getId(), 1);
+            return true;
+        });
+
+        // THEN
+        assertThat(currentQuantity(), equalTo(MAX_STOCK));
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(beer.getId(), 1));
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads decrementam além do estoque, então somente o estoque disponível deve ser consumido")
+    void whenManyThreadsDecrementBeyondStockThenOnlyAvailableStockIsConsumed() throws Exception {
+        // GIVEN
+        int initialQuantity = MAX_STOCK / 2;
+        beerService.increment(beer.getId(), initialQuantity);
+        AtomicInteger exceeded = new AtomicInteger();
+
+        // WHEN
+        List<Boolean> results = runConcurrently(() -> {
+            try {
+                beerService.decrement(beer.getId(), 1);
+                return true;
+            } catch (BeerStockExceededException e) {
+                exceeded.incrementAndGet();
+                return false;
+            }
+        });
+
+        // THEN
+        long succeeded = results.stream().filter(Boolean::booleanValue).count();
+        assertThat((int) succeeded, equalTo(initialQuantity));
+        assertThat(exceeded.get(), equalTo(MAX_STOCK - initialQuantity));
+        assertThat(currentQuantity(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Quando o incremento ou o decremento é negativo, então o estoque não deve sair de 0 a max")
+    void whenIncrementOrDecrementIsNegativeThenStockStaysWithinZeroAndMax() {
+        // THEN
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(beer.getId(), -500));
+        assertThrows(BeerStockExceededException.class, () -> beerService.decrement(beer.getId(), -(MAX_STOCK + 1)));
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(beer.getId(), -500, beer.getVersion()));
+        assertThat(currentQuantity(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Quando lotes concorrentes ajustam as mesmas cervejas em ordens opostas, então não deve haver deadlock nem atualização perdida")
+    void whenConcurrentBatchesAdjustTheSameBeersInOppositeOrderThenNoDeadlockOrLostUpdateHappens() throws Exception {
+        // GIVEN
+        Beer otherBeer = beerRepository.save(newBeer("Concurrency Stout", BeerType.STOUT));
+        AtomicInteger batches = new AtomicInteger();
+
+        try {
+            // WHEN
+            runConcurrently(() -> {
+                StockAdjustmentDTO first = StockAdjustmentDTO.builder().id(beer.getId()).quantity(1).build();
+                StockAdjustmentDTO second = StockAdjustmentDTO.builder().id(otherBeer.getId()).quantity(1).build();
+                boolean reversed = batches.incrementAndGet() % 2 == 0;
+                beerService.adjustStock(reversed ? List.of(second, first) : List.of(first, second), false);
+                return true;
+            });
+
+            // THEN
+            assertThat(currentQuantity(), equalTo(MAX_STOCK));
+            assertThat(beerRepository.findById(otherBeer.getId()).orElseThrow().getQuantity(), equalTo(MAX_STOCK));
+        } finally {
+            beerRepository.deleteById(otherBeer.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Quando um lote atômico falha em um item, então nenhum ajuste do lote deve ser aplicado")
+    void whenAtomicBatchFailsOnOneItemThenNoAdjustmentIsApplied() {
+        // GIVEN
+        List<StockAdjustmentDTO> adjustments = List.of(
+                StockAdjustmentDTO.builder().id(beer.getId()).quantity(10).build(),
+                StockAdjustmentDTO.builder().id(beer.getId()).quantity(-20).build());
+
+        // THEN
+        assertThrows(BeerStockExceededException.class, () -> beerService.adjustStock(adjustments, false));
+        assertThat(currentQuantity(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Quando uma cópia desatualizada da cerveja é salva, então deve falhar por conflito de versão")
+    void whenStaleBeerIsSavedThenVersionConflictIsRaised() throws Exception {
+        // GIVEN
+        Beer staleBeer = beerRepository.findById(beer.getId()).orElseThrow();
+        beerService.increment(beer.getId(), 1);
+
+        // WHEN
+        staleBeer.setQuantity(MAX_STOCK);
+
+        // THEN
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> beerRepository.save(staleBeer));
+        assertThat(currentQuantity(), equalTo(1));
+    }
+
+    private Beer newBeer(String name, BeerType type) {
+        return beerMapper.toModel(BeerDTOBuilder.builder()
+                .id(null)
+                .name(name)
+                .max(MAX_STOCK)
+                .quantity(0)
+                .type(type)
+                .build()
+                .toBeerDTO());
+    }
+
+    private List<Boolean> runConcurrently(Callable<Boolean> operation) throws Exception {
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < MAX_STOCK; i++) {
+            futures.add(executor.submit(operation));
+        }
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private int currentQuantity() {
+        return beerRepository.findById(beer.getId()).orElseThrow().getQuantity();
+    }
+}
@@ -0,0 +1,201 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:beerstock-shards;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@DisplayName("Teste do estoque particionado de cervejas")
+public class BeerStockShardsTest {
+
+    private static final int THREADS = 16;
+    private static final int MAX_STOCK = 200;
+    private static final int STOCK_SHARDS = 8;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerStockShardRepository shardRepository;
+
+    @AfterEach
+    void tearDown() {
+        shardRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando o estoque é particionado e depois unificado, então o total deve ser mantido e a versão deve crescer")
+    void whenStockIsShardedAndUnshardedThenTotalIsKeptAndVersionGrows() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Sharded Lager", 75);
+
+        // WHEN
+        BeerDTO shardedBeerDTO = beerService.reshardStock(beerDTO.getId(), STOCK_SHARDS);
+        BeerDTO decrementedBeerDTO = beerService.decrement(beerDTO.getId(), 5);
+        BeerDTO unshardedBeerDTO = beerService.reshardStock(beerDTO.getId(), 0);
+
+        // THEN
+        assertThat(shardedBeerDTO.getQuantity(), equalTo(75));
+        assertThat(shardRepository.count(), equalTo(0L));
+        assertThat(unshardedBeerDTO.getQuantity(), equalTo(70));
+        assertThat(decrementedBeerDTO.getVersion(), greaterThan(shardedBeerDTO.getVersion()));
+        assertThat(unshardedBeerDTO.getVersion(), greaterThan(decrementedBeerDTO.getVersion()));
+        assertThat(beerRepository.findById(beerDTO.getId()).orElseThrow().getQuantity(), equalTo(70));
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads incrementam uma cerveja particionada além do máximo, então o máximo deve valer para a soma das partições")
+    void whenManyThreadsIncrementShardedBeerBeyondMaxThenMaxHoldsForTheSum() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Sharded Stout", 0);
+        beerService.reshardStock(beerDTO.getId(), STOCK_SHARDS);
+
+        // WHEN
+        long accepted = runConcurrently(MAX_STOCK + 50, () -> {
+            beerService.increment(beerDTO.getId(), 1);
+            return true;
+        });
+
+        // THEN
+        assertThat(accepted, equalTo((long) MAX_STOCK));
+        assertThat(currentQuantity(beerDTO.getId()), equalTo(MAX_STOCK));
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads decrementam uma cerveja particionada além do estoque, então somente o estoque disponível deve ser consumido")
+    void whenManyThreadsDecrementShardedBeerBeyondStockThenOnlyAvailableStockIsConsumed() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Sharded Weiss", 100);
+        beerService.reshardStock(beerDTO.getId(), STOCK_SHARDS);
+
+        // WHEN
+        long accepted = runConcurrently(150, () -> {
+            beerService.decrement(beerDTO.getId(), 1);
+            return true;
+        });
+
+        // THEN
+        assertThat(accepted, equalTo(100L));
+        assertThat(shardRepository.findAll().stream().allMatch(shard -> shard.getQuantity() == 0), equalTo(true));
+    }
+
+    @Test
+    @DisplayName("Quando nenhuma partição comporta a alteração sozinha, então ela deve ser distribuída entre as partições")
+    void whenNoSingleShardFitsTheChangeThenItIsSpreadAcrossShards() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Sharded Ale", 0);
+        beerService.reshardStock(beerDTO.getId(), STOCK_SHARDS);
+
+        // WHEN
+        BeerDTO incrementedBeerDTO = beerService.increment(beerDTO.getId(), MAX_STOCK - 1);
+        List<StockAdjustmentResultDTO> results = beerService.adjustStock(List.of(
+                StockAdjustmentDTO.builder().id(beerDTO.getId()).quantity(-(MAX_STOCK - 10)).build()), false);
+
+        // THEN
+        assertThat(incrementedBeerDTO.getQuantity(), equalTo(MAX_STOCK - 1));
+        assertThat(results.get(0).getStatus(), equalTo(StockAdjustmentStatus.APPLIED));
+        assertThat(results.get(0).getStock(), equalTo(9));
+        assertThrows(BeerStockExceededException.class, () -> beerService.decrement(beerDTO.getId(), 10));
+    }
+
+    @Test
+    @DisplayName("Quando o decremento condicional usa uma versão desatualizada de cerveja particionada, então deve falhar")
+    void whenConditionalDecrementUsesStaleVersionOfShardedBeerThenItFails() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Sharded Pilsen", 50);
+        BeerDTO shardedBeerDTO = beerService.reshardStock(beerDTO.getId(), STOCK_SHARDS);
+        BeerDTO decrementedBeerDTO = beerService.decrement(beerDTO.getId(), 1, shardedBeerDTO.getVersion());
+
+        // THEN
+        assertThat(decrementedBeerDTO.getQuantity(), equalTo(49));
+        assertThat(beerService.findVersionByName(beerDTO.getName()).orElseThrow().getVersion(), equalTo(decrementedBeerDTO.getVersion()));
+        assertThrows(BeerVersionMismatchException.class, () -> beerService.decrement(beerDTO.getId(), 1, shardedBeerDTO.getVersion()));
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja é particionada, então as leituras sem entidades devem somar as partições como o mapper")
+    void whenBeerIsShardedThenProjectedReadsSumTheShardsLikeTheMapper() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = createBeer("Projected Lager", 40);
+        beerService.reshardStock(beerDTO.getId(), STOCK_SHARDS);
+        beerService.increment(beerDTO.getId(), 3);
+
+        // WHEN
+        BeerDTO mappedBeerDTO = beerMapper.toDTO(beerRepository.findById(beerDTO.getId()).orElseThrow());
+
+        // THEN
+        assertThat(beerRepository.findDTOByName("Projected Lager").orElseThrow(), equalTo(mappedBeerDTO));
+        assertThat(beerRepository.findDTOByName("Projected Lager").orElseThrow().getVersion(), equalTo(mappedBeerDTO.getVersion()));
+        assertThat(beerService.listAll(), contains(mappedBeerDTO));
+        assertThat(mappedBeerDTO.getQuantity(), equalTo(43));
+    }
+
+    private BeerDTO createBeer(String name, int quantity) throws Exception {
+        return beerService.createBeer(BeerDTO.builder()
+                .name(name)
+                .brand("Ambev")
+                .max(MAX_STOCK)
+                .quantity(quantity)
+                .type(BeerType.LAGER)
+                .build());
+    }
+
+    private int currentQuantity(Long id) {
+        return beerMapper.toDTO(beerRepository.findById(id).orElseThrow()).getQuantity();
+    }
+
+    private long runConcurrently(int operations, Callable<Boolean> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return operation.call();
+                    } catch (BeerStockExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            long accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            return accepted;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
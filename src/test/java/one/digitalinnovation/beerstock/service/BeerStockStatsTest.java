@@ -0,0 +1,182 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockStatsDTO;
+import one.digitalinnovation.beerstock.entity.BeerStockAggregate;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockStatsDimension;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockShardRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:beerstock-stats;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@DisplayName("Teste dos totais de estoque por tipo e por marca")
+public class BeerStockStatsTest {
+
+    private static final int MAX_STOCK = 100;
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerStockStats beerStockStats;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerStockShardRepository beerStockShardRepository;
+
+    @Autowired
+    private BeerTombstoneRepository beerTombstoneRepository;
+
+    @Autowired
+    private BeerStockAggregateRepository beerStockAggregateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        beerStockAggregateRepository.deleteAllInBatch();
+        beerTombstoneRepository.deleteAllInBatch();
+        beerStockShardRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando cervejas são criadas, alteradas e removidas, então os totais devem acompanhar o estoque")
+    void whenBeersAreCreatedChangedAndDeletedThenTotalsFollowTheStock() throws Exception {
+        // GIVEN
+        BeerDTO lager = createBeer("Stats Lager", "Ambev", BeerType.LAGER, 10);
+        BeerDTO stout = createBeer("Stats Stout", "Ambev", BeerType.STOUT, 20);
+        BeerDTO shardedLager = createBeer("Stats Sharded Lager", "Heineken", BeerType.LAGER, 0);
+        BeerDTO deletedLager = createBeer("Stats Deleted Lager", "Heineken", BeerType.LAGER, 40);
+        beerService.reshardStock(shardedLager.getId(), 4);
+
+        // WHEN
+        beerService.increment(lager.getId(), 5);
+        beerService.decrement(stout.getId(), 8);
+        beerService.increment(shardedLager.getId(), 7);
+        beerService.deleteById(deletedLager.getId());
+        BeerStatsDTO stats = beerStockStats.stats();
+
+        // THEN
+        assertThat(names(stats.getByType()), contains("LAGER", "STOUT"));
+        assertTotals(stats.getByType().get(0), 2, 22, 2 * MAX_STOCK);
+        assertTotals(stats.getByType().get(1), 1, 12, MAX_STOCK);
+        assertThat(names(stats.getByBrand()), contains("Ambev", "Heineken"));
+        assertTotals(stats.getByBrand().get(0), 2, 27, 2 * MAX_STOCK);
+        assertTotals(stats.getByBrand().get(1), 1, 7, MAX_STOCK);
+        assertThat(beerStockStats.reconcile(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Quando uma alteração de estoque é desfeita, então os totais não devem contá-la")
+    void whenAStockChangeRollsBackThenTotalsDoNotCountIt() throws Exception {
+        // GIVEN
+        BeerDTO lager = createBeer("Rolled Back Lager", "Ambev", BeerType.LAGER, 10);
+
+        // WHEN
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            beerStockStats.stockChanged(lager.getId(), 5);
+            status.setRollbackOnly();
+        });
+
+        // THEN
+        assertTotals(beerStockStats.stats().getByType().get(0), 1, 10, MAX_STOCK);
+    }
+
+    @Test
+    @DisplayName("Quando um total diverge das cervejas, então a reconciliação deve corrigi-lo")
+    void whenATotalDriftsFromTheBeersThenReconciliationRepairsIt() throws Exception {
+        // GIVEN
+        BeerDTO lager = createBeer("Drifted Lager", "Ambev", BeerType.LAGER, 10);
+        int slot = (int) (lager.getId() % BeerStockAggregate.SLOTS);
+        BeerStockAggregate aggregate = beerStockAggregateRepository.findAll().stream()
+                .filter(row -> row.getDimension() == StockStatsDimension.TYPE && row.getSlot() == slot)
+                .findFirst()
+                .orElseThrow();
+        aggregate.setQuantity(999);
+        beerStockAggregateRepository.save(aggregate);
+
+        // WHEN
+        int repaired = beerStockStats.reconcile();
+        BeerStatsDTO stats = beerStockStats.stats();
+
+        // THEN
+        assertThat(repaired, equalTo(1));
+        assertTotals(stats.getByType().get(0), 1, 10, MAX_STOCK);
+        assertThat(beerStockStats.reconcile(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Quando uma cerveja particionada é alterada em paralelo, então os totais devem contar cada alteração uma vez")
+    void whenAShardedBeerIsChangedConcurrentlyThenTotalsCountEveryChangeOnce() throws Exception {
+        // GIVEN
+        BeerDTO lager = createBeer("Hot Sharded Lager", "Ambev", BeerType.LAGER, 0);
+        beerService.reshardStock(lager.getId(), 4);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Future<BeerDTO>> increments = new ArrayList<>();
+
+        // WHEN
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                increments.add(executor.submit(() -> beerService.increment(lager.getId(), 1)));
+            }
+            for (Future<BeerDTO> increment : increments) {
+                increment.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+
+        // THEN
+        assertTotals(beerStockStats.stats().getByType().get(0), 1, WRITERS, MAX_STOCK);
+        assertThat(beerStockStats.reconcile(), equalTo(0));
+    }
+
+    private void assertTotals(BeerStockStatsDTO stats, long beers, long quantity, long capacity) {
+        assertThat(stats.getBeers(), equalTo(beers));
+        assertThat(stats.getQuantity(), equalTo(quantity));
+        assertThat(stats.getCapacity(), equalTo(capacity));
+        assertThat(stats.getFillRatio(), equalTo((double) quantity / capacity));
+    }
+
+    private List<String> names(List<BeerStockStatsDTO> stats) {
+        return stats.stream().map(BeerStockStatsDTO::getName).collect(Collectors.toList());
+    }
+
+    private BeerDTO createBeer(String name, String brand, BeerType type, int quantity) throws Exception {
+        return beerService.createBeer(BeerDTO.builder()
+                .name(name)
+                .brand(brand)
+                .max(MAX_STOCK)
+                .quantity(quantity)
+                .type(type)
+                .build());
+    }
+}
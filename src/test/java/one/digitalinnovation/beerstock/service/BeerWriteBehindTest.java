@@ -0,0 +1,123 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-write-behind;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.write-behind.enabled=true",
+        "beerstock.write-behind.flush-interval=1h"})
+@DisplayName("Teste do modo write-behind do estoque de cervejas")
+public class BeerWriteBehindTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerReservationRepository beerReservationRepository;
+
+    @Autowired
+    private BeerReservationService beerReservationService;
+
+    @Autowired
+    private WriteBehindStockBuffer writeBehindStockBuffer;
+
+    @AfterEach
+    void tearDown() {
+        writeBehindStockBuffer.flush();
+        beerReservationRepository.deleteAllInBatch();
+        beerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads decrementam em modo write-behind, então o estoque gravado reflete somente os decrementos aceitos")
+    void whenManyThreadsDecrementInWriteBehindModeThenStoredStockReflectsOnlyAcceptedDecrements() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = beerService.createBeer(BeerDTO.builder()
+                .name("Write Behind Pilsen")
+                .brand("Ambev")
+                .max(500)
+                .quantity(100)
+                .type(BeerType.LAGER)
+                .build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // WHEN
+        try {
+            for (int i = 0; i < 250; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        beerService.decrement(beerDTO.getId(), 1);
+                        return true;
+                    } catch (BeerStockExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            long accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            int storedBeforeFlush = beerRepository.findById(beerDTO.getId()).orElseThrow().getQuantity();
+            writeBehindStockBuffer.flush();
+
+            // THEN
+            assertThat(accepted, equalTo(100L));
+            assertThat(storedBeforeFlush, equalTo(100));
+            assertThat(beerRepository.findById(beerDTO.getId()).orElseThrow().getQuantity(), equalTo(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Quando há vendas no buffer, então a reserva deve considerar o estoque já vendido")
+    void whenSalesAreBufferedThenReservationSeesTheStockAlreadySold() throws Exception {
+        // GIVEN
+        BeerDTO beerDTO = beerService.createBeer(BeerDTO.builder()
+                .name("Write Behind Reserved")
+                .brand("Ambev")
+                .max(500)
+                .quantity(100)
+                .type(BeerType.LAGER)
+                .build());
+        BeerDTO decrementedBeerDTO = beerService.decrement(beerDTO.getId(), 90);
+
+        // WHEN
+        assertThrows(BeerStockExceededException.class, () -> beerReservationService.reserve(beerDTO.getId(), 20));
+        beerReservationService.reserve(beerDTO.getId(), 10);
+
+        // THEN
+        Beer storedBeer = beerRepository.findById(beerDTO.getId()).orElseThrow();
+        assertThat(storedBeer.getQuantity(), equalTo(10));
+        assertThat(storedBeer.getReserved(), equalTo(10));
+        assertThat(decrementedBeerDTO.getVersion(), equalTo(beerDTO.getVersion() + 1));
+        assertThrows(BeerStockExceededException.class, () -> beerService.decrement(beerDTO.getId(), 1));
+    }
+}
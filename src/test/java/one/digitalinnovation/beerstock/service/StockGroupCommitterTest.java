@@ -0,0 +1,177 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Teste Unitário em StockGroupCommitter")
+public class StockGroupCommitterTest {
+
+    private static final int CALLERS = 8;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private StockGroupCommitter stockGroupCommitter;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getGroupCommit().setEnabled(true);
+        properties.getGroupCommit().setWindow(Duration.ofMillis(500));
+        properties.getGroupCommit().setMaxBatchSize(CALLERS);
+        properties.getStockRetry().setMaxAttempts(MAX_ATTEMPTS);
+        properties.getStockRetry().setInitialBackoff(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        BeerStockStats beerStockStats = new BeerStockStats(beerRepository, mock(BeerStockAggregateRepository.class),
+                mock(PlatformTransactionManager.class), properties, meterRegistry);
+        stockGroupCommitter = new StockGroupCommitter(beerRepository, new BeerChangeSequence(), beerStockStats,
+                new StockMutationRetrier(properties, meterRegistry), properties, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Quando várias alterações chegam na mesma janela, então devem ser gravadas em um único update")
+    void whenManyChangesArriveInTheSameWindowThenTheyAreWrittenWithASingleUpdate() throws Exception {
+        // GIVEN
+        Beer beer = beer(10, 50);
+
+        // WHEN
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.compareAndSetQuantity(eq(beer.getId()), eq(10), eq(10 + CALLERS), anyLong())).thenReturn(1);
+        List<Boolean> results = submitConcurrently(beer.getId(), 1, CALLERS);
+
+        // THEN
+        assertThat(results.stream().filter(Boolean::booleanValue).count(), equalTo((long) CALLERS));
+        verify(beerRepository, times(1)).compareAndSetQuantity(eq(beer.getId()), eq(10), eq(10 + CALLERS), anyLong());
+        assertThat(meterRegistry.get("beerstock.stock.group.commit.size").summary().max(), equalTo((double) CALLERS));
+    }
+
+    @Test
+    @DisplayName("Quando parte do lote excede o máximo, então somente essas alterações devem falhar")
+    void whenPartOfTheBatchExceedsMaxThenOnlyThoseChangesFail() throws Exception {
+        // GIVEN
+        Beer beer = beer(10, 13);
+
+        // WHEN
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.compareAndSetQuantity(eq(beer.getId()), eq(10), eq(13), anyLong())).thenReturn(1);
+        List<Boolean> results = submitConcurrently(beer.getId(), 1, CALLERS);
+
+        // THEN
+        assertThat(results.stream().filter(Boolean::booleanValue).count(), equalTo(3L));
+    }
+
+    @Test
+    @DisplayName("Quando outro escritor altera o estoque antes, então o lote deve ser recalculado sobre o estoque atual")
+    void whenAnotherWriterChangesStockFirstThenBatchIsRecomputedOnCurrentStock() throws Exception {
+        // GIVEN
+        Beer staleBeer = beer(10, 50);
+        Beer currentBeer = beer(12, 50);
+
+        // WHEN
+        when(beerRepository.findById(staleBeer.getId())).thenReturn(Optional.of(staleBeer), Optional.of(currentBeer));
+        when(beerRepository.compareAndSetQuantity(eq(staleBeer.getId()), eq(10), eq(7), anyLong())).thenReturn(0);
+        when(beerRepository.compareAndSetQuantity(eq(staleBeer.getId()), eq(12), eq(9), anyLong())).thenReturn(1);
+
+        // THEN
+        assertThat(stockGroupCommitter.submit(staleBeer.getId(), -3).getQuantity(), equalTo(9));
+    }
+
+    @Test
+    @DisplayName("Quando outros escritores sempre alteram o estoque antes, então o lote deve desistir após o limite de tentativas")
+    void whenOtherWritersAlwaysChangeStockFirstThenBatchGivesUpAfterMaxAttempts() {
+        // GIVEN
+        Beer beer = beer(10, 50);
+
+        // WHEN
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.compareAndSetQuantity(eq(beer.getId()), eq(10), eq(11), anyLong())).thenReturn(0);
+
+        // THEN
+        assertThrows(BeerStockConflictException.class, () -> stockGroupCommitter.submit(beer.getId(), 1));
+        verify(beerRepository, times(MAX_ATTEMPTS)).compareAndSetQuantity(eq(beer.getId()), eq(10), eq(11), anyLong());
+        assertThat(meterRegistry.get("beerstock.stock.retries.exhausted").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja não existe, então lance uma exceção de cerveja não encontrada")
+    void whenBeerDoesNotExistThenThrowBeerNotFoundException() {
+        // WHEN
+        when(beerRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // THEN
+        assertThrows(BeerNotFoundException.class, () -> stockGroupCommitter.submit(1L, 1));
+    }
+
+    private List<Boolean> submitConcurrently(Long id, int delta, int callers) throws Exception {
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    stockGroupCommitter.submit(id, delta);
+                    return true;
+                } catch (BeerStockExceededException e) {
+                    return false;
+                }
+            }));
+        }
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private Beer beer(int quantity, int max) {
+        return beerMapper.toModel(BeerDTOBuilder.builder().quantity(quantity).max(max).build().toBeerDTO());
+    }
+}
@@ -0,0 +1,123 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Teste Unitário em StockMutationRetrier")
+public class StockMutationRetrierTest {
+
+    private static final long BEER_ID = 1L;
+
+    private MeterRegistry meterRegistry;
+
+    private StockMutationRetrier stockMutationRetrier;
+
+    @BeforeEach
+    void setUp() {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getStockRetry().setMaxAttempts(4);
+        properties.getStockRetry().setInitialBackoff(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        stockMutationRetrier = new StockMutationRetrier(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Quando a mutação conflita algumas vezes, então deve ser repetida até ter sucesso")
+    void whenMutationConflictsSomeTimesThenItIsRetriedUntilItSucceeds() throws Exception {
+        // GIVEN
+        AtomicInteger attempts = new AtomicInteger();
+
+        // WHEN
+        int result = stockMutationRetrier.execute(BEER_ID, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            return 42;
+        });
+
+        // THEN
+        assertThat(result, equalTo(42));
+        assertThat(attempts.get(), equalTo(3));
+        assertThat(count("beerstock.stock.conflicts"), equalTo(2.0));
+        assertThat(count("beerstock.stock.retries"), equalTo(2.0));
+        assertThat(count("beerstock.stock.retries.exhausted"), equalTo(0.0));
+    }
+
+    @Test
+    @DisplayName("Quando a mutação conflita em todas as tentativas, então lance uma exceção de conflito")
+    void whenMutationAlwaysConflictsThenThrowConflictException() {
+        // GIVEN
+        AtomicInteger attempts = new AtomicInteger();
+
+        // THEN
+        assertThrows(BeerStockConflictException.class, () -> stockMutationRetrier.execute(BEER_ID, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("version changed");
+        }));
+        assertThat(attempts.get(), equalTo(4));
+        assertThat(count("beerstock.stock.conflicts"), equalTo(4.0));
+        assertThat(count("beerstock.stock.retries"), equalTo(3.0));
+        assertThat(count("beerstock.stock.retries.exhausted"), equalTo(1.0));
+        assertThat(meterRegistry.get("beerstock.stock.conflicts").counter().getId().getTag("beer"), equalTo("1"));
+        assertThat(meterRegistry.get("beerstock.stock.retries").counter().getId().getTag("beer"), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("Quando a mutação falha por regra de negócio, então não deve ser repetida")
+    void whenMutationFailsWithBusinessErrorThenItIsNotRetried() {
+        // GIVEN
+        AtomicInteger attempts = new AtomicInteger();
+
+        // THEN
+        assertThrows(BeerStockExceededException.class, () -> stockMutationRetrier.execute(BEER_ID, () -> {
+            attempts.incrementAndGet();
+            throw new BeerStockExceededException(BEER_ID, 10);
+        }));
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(meterRegistry.find("beerstock.stock.conflicts").counters(), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Quando mais cervejas conflitam que o limite de tags, então as excedentes devem ser contadas como outras")
+    void whenMoreBeersConflictThanTheTagLimitThenTheRestAreCountedAsOther() {
+        // GIVEN
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getStockRetry().setMaxAttempts(1);
+        properties.getStockRetry().setMaxTaggedBeers(1);
+        StockMutationRetrier limitedRetrier = new StockMutationRetrier(properties, meterRegistry);
+
+        // WHEN
+        for (long beerId = 1; beerId <= 3; beerId++) {
+            long conflictingBeerId = beerId;
+            assertThrows(BeerStockConflictException.class, () -> limitedRetrier.execute(conflictingBeerId, () -> {
+                throw new OptimisticLockingFailureException("version changed");
+            }));
+        }
+
+        // THEN
+        assertThat(meterRegistry.get("beerstock.stock.conflicts").tag("beer", "1").counter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("beerstock.stock.conflicts").tag("beer", "other").counter().count(), equalTo(2.0));
+        assertThat(meterRegistry.get("beerstock.stock.conflicts").counters().size(), equalTo(2));
+    }
+
+    private double count(String metric) {
+        return meterRegistry.get(metric).counter().count();
+    }
+}
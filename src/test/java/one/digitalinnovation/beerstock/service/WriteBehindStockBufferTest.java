@@ -0,0 +1,270 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAdjustmentDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockAggregateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Teste Unitário em WriteBehindStockBuffer")
+public class WriteBehindStockBufferTest {
+
+    private static final int THREADS = 8;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private WriteBehindStockBuffer writeBehindStockBuffer;
+
+    private ExecutorService executor;
+
+    private Beer beer;
+
+    @BeforeEach
+    void setUp() {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setFlushThreshold(Integer.MAX_VALUE);
+        meterRegistry = new SimpleMeterRegistry();
+        BeerStockStats beerStockStats = new BeerStockStats(beerRepository, mock(BeerStockAggregateRepository.class),
+                mock(PlatformTransactionManager.class), properties, meterRegistry);
+        writeBehindStockBuffer = new WriteBehindStockBuffer(beerRepository, new BeerChangeSequence(), beerStockStats, new BeerCatalogVersion(),
+                mock(CacheManager.class), mock(PlatformTransactionManager.class), properties, meterRegistry);
+        executor = Executors.newFixedThreadPool(THREADS);
+        beer = beerMapper.toModel(BeerDTOBuilder.builder().quantity(100).max(200).build().toBeerDTO());
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.of(beer));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Quando muitas threads decrementam além do estoque, então o estoque em memória nunca fica negativo")
+    void whenManyThreadsDecrementBeyondStockThenInMemoryStockNeverGoesNegative() throws Exception {
+        // GIVEN
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 300; i++) {
+            results.add(executor.submit(() -> {
+                try {
+                    writeBehindStockBuffer.adjust(beer.getId(), -1);
+                    return true;
+                } catch (BeerStockExceededException e) {
+                    return false;
+                }
+            }));
+        }
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            succeeded += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+
+        // THEN
+        assertThat(succeeded, equalTo(100));
+        assertThrows(BeerStockExceededException.class, () -> writeBehindStockBuffer.adjust(beer.getId(), -1));
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja tem unidades reservadas, então o estoque em memória nunca desce abaixo delas")
+    void whenBeerHasReservedUnitsThenInMemoryStockNeverGoesBelowThem() throws Exception {
+        // GIVEN
+        beer.setReserved(30);
+
+        // WHEN
+        BeerDTO lastResult = writeBehindStockBuffer.adjust(beer.getId(), -70).orElseThrow();
+
+        // THEN
+        assertThat(lastResult.getQuantity(), equalTo(30));
+        assertThrows(BeerStockExceededException.class, () -> writeBehindStockBuffer.adjust(beer.getId(), -1));
+    }
+
+    @Test
+    @DisplayName("Quando o buffer é descarregado, então os deltas de cada cerveja são somados em um único ajuste")
+    void whenBufferIsFlushedThenDeltasOfEachBeerAreSummedIntoOneAdjustment() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.adjust(beer.getId(), -3);
+        writeBehindStockBuffer.adjust(beer.getId(), 10);
+        BeerDTO lastResult = writeBehindStockBuffer.adjust(beer.getId(), -2).orElseThrow();
+        List<StockAdjustmentDTO> expectedAdjustments = List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(5).build());
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(expectedAdjustments), aryEq(new int[]{3}), anyLong())).thenReturn(new int[]{1});
+        writeBehindStockBuffer.flush();
+        writeBehindStockBuffer.flush();
+
+        // THEN
+        assertThat(lastResult.getQuantity(), equalTo(105));
+        assertThat(lastResult.getVersion(), equalTo(beer.getVersion() + 3));
+        verify(beerRepository, times(1)).adjustQuantities(anyList(), any(int[].class), anyLong());
+        assertThat(meterRegistry.get("beerstock.stock.write.behind.flushed").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("Quando o descarregamento falha, então os deltas devem ser mantidos para a próxima tentativa")
+    void whenFlushFailsThenDeltasAreKeptForTheNextAttempt() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.adjust(beer.getId(), -4);
+        List<StockAdjustmentDTO> firstAdjustments = List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(-4).build());
+        List<StockAdjustmentDTO> retriedAdjustments = List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(-5).build());
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(firstAdjustments), aryEq(new int[]{1}), anyLong())).thenThrow(new DataAccessResourceFailureException("database down"));
+        when(beerRepository.adjustQuantities(eq(retriedAdjustments), aryEq(new int[]{2}), anyLong())).thenReturn(new int[]{1});
+        writeBehindStockBuffer.flush();
+        writeBehindStockBuffer.adjust(beer.getId(), -1);
+        writeBehindStockBuffer.flush();
+
+        // THEN
+        verify(beerRepository).adjustQuantities(eq(retriedAdjustments), aryEq(new int[]{2}), anyLong());
+        assertThat(meterRegistry.get("beerstock.stock.write.behind.failures").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("Quando o banco rejeita um delta, então a parte que ainda cabe no estoque gravado deve ser aplicada")
+    void whenDatabaseRejectsADeltaThenThePartThatStillFitsTheStoredStockIsApplied() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.adjust(beer.getId(), -50);
+        List<StockAdjustmentDTO> fittingAdjustments = List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(-20).build());
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(-50).build())), any(int[].class), anyLong()))
+                .thenReturn(new int[]{0});
+        when(beerRepository.findAllById(anyIterable())).thenReturn(List.of(storedBeer(20)));
+        when(beerRepository.adjustQuantities(eq(fittingAdjustments), aryEq(new int[]{1}), anyLong())).thenReturn(new int[]{1});
+        writeBehindStockBuffer.flush();
+
+        // THEN
+        verify(beerRepository).adjustQuantities(eq(fittingAdjustments), aryEq(new int[]{1}), anyLong());
+        assertThat(meterRegistry.get("beerstock.stock.write.behind.rejected").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("Quando a cerveja é excluída do buffer, então seus deltas são gravados e as mudanças seguintes vão direto ao banco")
+    void whenBeerIsExcludedThenItsDeltasAreWrittenAndLaterChangesBypassTheBuffer() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.adjust(beer.getId(), -5);
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(-5).build())), aryEq(new int[]{1}), anyLong()))
+                .thenReturn(new int[]{1});
+        WriteBehindStockBuffer.Exclusion exclusion = writeBehindStockBuffer.exclude(List.of(beer.getId()));
+
+        // THEN
+        assertThat(writeBehindStockBuffer.adjust(beer.getId(), -1).isPresent(), is(false));
+        exclusion.close();
+        assertThat(writeBehindStockBuffer.adjust(beer.getId(), -1).isPresent(), is(true));
+    }
+
+    @Test
+    @DisplayName("Quando a transação que excluiu a cerveja é desfeita, então seus deltas voltam para o próximo descarregamento")
+    void whenExcludingTransactionRollsBackThenItsDeltasAreQueuedForTheNextFlush() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.adjust(beer.getId(), -5);
+        List<StockAdjustmentDTO> expectedAdjustments = List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(-5).build());
+
+        // WHEN
+        when(beerRepository.adjustQuantities(eq(expectedAdjustments), aryEq(new int[]{1}), anyLong())).thenReturn(new int[]{1});
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writeBehindStockBuffer.exclude(List.of(beer.getId())).close();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // THEN
+        assertThat(writeBehindStockBuffer.adjust(beer.getId(), -1).isPresent(), is(false));
+        writeBehindStockBuffer.flush();
+        verify(beerRepository, times(2)).adjustQuantities(eq(expectedAdjustments), aryEq(new int[]{1}), anyLong());
+        assertThat(writeBehindStockBuffer.adjust(beer.getId(), -1).isPresent(), is(true));
+    }
+
+    @Test
+    @DisplayName("Quando um contador fica um intervalo inteiro sem mudanças, então ele deve ser descartado")
+    void whenCounterIsIdleForAWholeIntervalThenItIsDropped() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.adjust(beer.getId(), -5);
+        when(beerRepository.adjustQuantities(anyList(), any(int[].class), anyLong())).thenReturn(new int[]{1});
+
+        // WHEN
+        writeBehindStockBuffer.flush();
+        writeBehindStockBuffer.flush();
+        beer.setQuantity(95);
+        BeerDTO reloaded = writeBehindStockBuffer.adjust(beer.getId(), -1).orElseThrow();
+
+        // THEN
+        assertThat(reloaded.getQuantity(), equalTo(94));
+        verify(beerRepository, times(2)).findById(beer.getId());
+    }
+
+    @Test
+    @DisplayName("Quando a aplicação é encerrada, então o buffer deve ser descarregado")
+    void whenApplicationStopsThenBufferIsDrained() throws Exception {
+        // GIVEN
+        writeBehindStockBuffer.start();
+        writeBehindStockBuffer.adjust(beer.getId(), 7);
+
+        // WHEN
+        when(beerRepository.adjustQuantities(anyList(), any(int[].class), anyLong())).thenReturn(new int[]{1});
+        writeBehindStockBuffer.stop();
+
+        // THEN
+        verify(beerRepository).adjustQuantities(eq(List.of(StockAdjustmentDTO.builder().id(beer.getId()).quantity(7).build())), aryEq(new int[]{1}), anyLong());
+    }
+
+    private Beer storedBeer(int quantity) {
+        Beer storedBeer = beerMapper.toModel(beerMapper.toDTO(beer));
+        storedBeer.setQuantity(quantity);
+        return storedBeer;
+    }
+}